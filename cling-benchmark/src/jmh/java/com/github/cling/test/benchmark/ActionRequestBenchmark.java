@@ -0,0 +1,78 @@
+package com.github.cling.test.benchmark;
+
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.message.control.OutgoingActionRequestMessage;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.transport.impl.SOAPActionProcessorImpl;
+import org.fourthline.cling.transport.spi.SOAPActionProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construct every action and marshal it to a SOAP request body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ActionRequestBenchmark {
+    @Param({
+            "GetDeviceCapabilities",
+            "GetMediaInfo",
+            "GetPositionInfo",
+            "GetTransportInfo",
+            "GetTransportSettings",
+            "Pause",
+            "Play",
+            "Seek",
+            "SetAVTransportURI",
+            "SetNextAVTransportURI",
+            "SetPlayMode",
+            "Stop",
+            "GetMute",
+            "GetVolume",
+            "ListPresets",
+            "SetMute",
+            "SetVolume",
+            "GetCurrentConnectionIDs",
+            "GetCurrentConnectionInfo",
+            "GetProtocolInfo"
+    })
+    public String action;
+
+    private RendererServices services;
+    private BenchmarkAction benchmarkAction;
+    private URL controlUrl;
+    private SOAPActionProcessor processor;
+
+    @Setup
+    public void setUp() throws Exception {
+        services = new RendererServices();
+        benchmarkAction = BenchmarkAction.valueOf(action);
+        RemoteService service = benchmarkAction.create(services).getAction().getService();
+        controlUrl = RendererServices.controlUrl(service);
+        processor = new SOAPActionProcessorImpl();
+    }
+
+    @Benchmark
+    public ActionInvocation<RemoteService> construct() {
+        return benchmarkAction.create(services);
+    }
+
+    @Benchmark
+    public String constructAndMarshal() throws Exception {
+        ActionInvocation<RemoteService> invocation = benchmarkAction.create(services);
+        OutgoingActionRequestMessage request =
+                new OutgoingActionRequestMessage(invocation, controlUrl);
+        processor.writeBody(request, invocation);
+        return request.getBodyString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.cling.test.benchmark;
+
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.message.StreamResponseMessage;
+import org.fourthline.cling.model.message.control.IncomingActionResponseMessage;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.transport.impl.SOAPActionProcessorImpl;
+import org.fourthline.cling.transport.spi.SOAPActionProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unmarshal a canned SOAP response and read it through the typed getter of the action.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ActionResponseBenchmark {
+    @Param({
+            "GetDeviceCapabilities",
+            "GetMediaInfo",
+            "GetPositionInfo",
+            "GetTransportInfo",
+            "GetTransportSettings",
+            "GetMute",
+            "GetVolume",
+            "ListPresets",
+            "GetCurrentConnectionIDs",
+            "GetCurrentConnectionInfo",
+            "GetProtocolInfo"
+    })
+    public String action;
+
+    private RendererServices services;
+    private BenchmarkAction benchmarkAction;
+    private String responseBody;
+    private SOAPActionProcessor processor;
+
+    @Setup
+    public void setUp() throws Exception {
+        services = new RendererServices();
+        benchmarkAction = BenchmarkAction.valueOf(action);
+        if (!benchmarkAction.hasResponse()) {
+            throw new IllegalStateException(action + " has no canned response");
+        }
+        RemoteService service = benchmarkAction.create(services).getAction().getService();
+        responseBody = benchmarkAction.cannedResponse(service);
+        processor = new SOAPActionProcessorImpl();
+        // Fail fast on an invalid canned response instead of benchmarking exceptions
+        unmarshalAndRead();
+    }
+
+    @Benchmark
+    public Object unmarshalAndRead() throws Exception {
+        ActionInvocation<RemoteService> invocation = benchmarkAction.create(services);
+        IncomingActionResponseMessage response =
+                new IncomingActionResponseMessage(new StreamResponseMessage(responseBody));
+        processor.readBody(response, invocation);
+        return benchmarkAction.read(invocation);
+    }
+}
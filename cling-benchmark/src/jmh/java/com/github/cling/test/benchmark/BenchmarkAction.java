@@ -0,0 +1,198 @@
+package com.github.cling.test.benchmark;
+
+import com.github.cling.test.instrument.avtransport.GetDeviceCapabilitiesAction;
+import com.github.cling.test.instrument.avtransport.GetMediaInfoAction;
+import com.github.cling.test.instrument.avtransport.GetPositionInfoAction;
+import com.github.cling.test.instrument.avtransport.GetTransportInfoAction;
+import com.github.cling.test.instrument.avtransport.GetTransportSettingsAction;
+import com.github.cling.test.instrument.avtransport.PauseAction;
+import com.github.cling.test.instrument.avtransport.PlayAction;
+import com.github.cling.test.instrument.avtransport.SeekAction;
+import com.github.cling.test.instrument.avtransport.SetAVTransportURIAction;
+import com.github.cling.test.instrument.avtransport.SetNextAVTransportURIAction;
+import com.github.cling.test.instrument.avtransport.SetPlayModeAction;
+import com.github.cling.test.instrument.avtransport.StopAction;
+import com.github.cling.test.instrument.connectionmanager.GetCurrentConnectionIDsAction;
+import com.github.cling.test.instrument.connectionmanager.GetCurrentConnectionInfoAction;
+import com.github.cling.test.instrument.connectionmanager.GetProtocolInfoAction;
+import com.github.cling.test.instrument.renderingcontrol.GetMuteAction;
+import com.github.cling.test.instrument.renderingcontrol.GetVolumeAction;
+import com.github.cling.test.instrument.renderingcontrol.ListPresetsAction;
+import com.github.cling.test.instrument.renderingcontrol.SetMuteAction;
+import com.github.cling.test.instrument.renderingcontrol.SetVolumeAction;
+
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.model.types.UnsignedIntegerFourBytes;
+import org.fourthline.cling.model.types.UnsignedIntegerTwoBytes;
+
+import java.util.function.Function;
+
+/**
+ * Every action of the instrumentation library, with a canned response for the actions which
+ * have typed getters.
+ */
+enum BenchmarkAction {
+    GetDeviceCapabilities(
+            services -> new GetDeviceCapabilitiesAction(services.avTransport, instanceId()),
+            "<PlayMedia>NETWORK</PlayMedia>"
+                    + "<RecMedia>NOT_IMPLEMENTED</RecMedia>"
+                    + "<RecQualityModes>NOT_IMPLEMENTED</RecQualityModes>",
+            action -> ((GetDeviceCapabilitiesAction) action).getDeviceCapabilities()
+    ),
+    GetMediaInfo(
+            services -> new GetMediaInfoAction(services.avTransport, instanceId()),
+            "<NrTracks>1</NrTracks>"
+                    + "<MediaDuration>00:03:25</MediaDuration>"
+                    + "<CurrentURI>http://192.168.1.2:8080/media/song.mp3</CurrentURI>"
+                    + "<CurrentURIMetaData>NOT_IMPLEMENTED</CurrentURIMetaData>"
+                    + "<NextURI>http://192.168.1.2:8080/media/next.mp3</NextURI>"
+                    + "<NextURIMetaData>NOT_IMPLEMENTED</NextURIMetaData>"
+                    + "<PlayMedium>NETWORK</PlayMedium>"
+                    + "<RecordMedium>NOT_IMPLEMENTED</RecordMedium>"
+                    + "<WriteStatus>NOT_IMPLEMENTED</WriteStatus>",
+            action -> ((GetMediaInfoAction) action).getMediaInfo()
+    ),
+    GetPositionInfo(
+            services -> new GetPositionInfoAction(services.avTransport, instanceId()),
+            "<Track>1</Track>"
+                    + "<TrackDuration>00:03:25</TrackDuration>"
+                    + "<TrackMetaData>NOT_IMPLEMENTED</TrackMetaData>"
+                    + "<TrackURI>http://192.168.1.2:8080/media/song.mp3</TrackURI>"
+                    + "<RelTime>00:01:10</RelTime>"
+                    + "<AbsTime>00:01:10</AbsTime>"
+                    + "<RelCount>2147483647</RelCount>"
+                    + "<AbsCount>2147483647</AbsCount>",
+            action -> ((GetPositionInfoAction) action).getPositionInfo()
+    ),
+    GetTransportInfo(
+            services -> new GetTransportInfoAction(services.avTransport, instanceId()),
+            "<CurrentTransportState>PLAYING</CurrentTransportState>"
+                    + "<CurrentTransportStatus>OK</CurrentTransportStatus>"
+                    + "<CurrentSpeed>1</CurrentSpeed>",
+            action -> ((GetTransportInfoAction) action).getTransportInfo()
+    ),
+    GetTransportSettings(
+            services -> new GetTransportSettingsAction(services.avTransport, instanceId()),
+            "<PlayMode>NORMAL</PlayMode>"
+                    + "<RecQualityMode>NOT_IMPLEMENTED</RecQualityMode>",
+            action -> ((GetTransportSettingsAction) action).getTransportSettings()
+    ),
+    Pause(services -> new PauseAction(services.avTransport, instanceId())),
+    Play(services -> new PlayAction(services.avTransport, instanceId())),
+    Seek(services -> new SeekAction(services.avTransport, instanceId(), "REL_TIME", "00:01:00")),
+    SetAVTransportURI(
+            services -> new SetAVTransportURIAction(
+                    services.avTransport,
+                    instanceId(),
+                    "http://192.168.1.2:8080/media/song.mp3",
+                    "NOT_IMPLEMENTED"
+            )
+    ),
+    SetNextAVTransportURI(
+            services -> new SetNextAVTransportURIAction(
+                    services.avTransport,
+                    instanceId(),
+                    "http://192.168.1.2:8080/media/next.mp3",
+                    "NOT_IMPLEMENTED"
+            )
+    ),
+    SetPlayMode(services -> new SetPlayModeAction(services.avTransport, instanceId(), "NORMAL")),
+    Stop(services -> new StopAction(services.avTransport, instanceId())),
+    GetMute(
+            services -> new GetMuteAction(services.renderingControl, instanceId(), "Master"),
+            "<CurrentMute>0</CurrentMute>",
+            action -> ((GetMuteAction) action).getMute()
+    ),
+    GetVolume(
+            services -> new GetVolumeAction(services.renderingControl, instanceId(), "Master"),
+            "<CurrentVolume>50</CurrentVolume>",
+            action -> ((GetVolumeAction) action).getVolume()
+    ),
+    ListPresets(
+            services -> new ListPresetsAction(services.renderingControl, instanceId()),
+            "<CurrentPresetNameList>FactoryDefaults</CurrentPresetNameList>",
+            action -> ((ListPresetsAction) action).getCurrentPresentNameList()
+    ),
+    SetMute(
+            services -> new SetMuteAction(services.renderingControl, instanceId(), "Master", true)
+    ),
+    SetVolume(
+            services -> new SetVolumeAction(
+                    services.renderingControl,
+                    instanceId(),
+                    "Master",
+                    new UnsignedIntegerTwoBytes(50)
+            )
+    ),
+    GetCurrentConnectionIDs(
+            services -> new GetCurrentConnectionIDsAction(services.connectionManager),
+            "<ConnectionIDs>0</ConnectionIDs>",
+            action -> ((GetCurrentConnectionIDsAction) action).getCurrentConnectionIDs()
+    ),
+    GetCurrentConnectionInfo(
+            services -> new GetCurrentConnectionInfoAction(services.connectionManager, 0),
+            "<RcsID>0</RcsID>"
+                    + "<AVTransportID>0</AVTransportID>"
+                    + "<ProtocolInfo>http-get:*:audio/mpeg:*</ProtocolInfo>"
+                    + "<PeerConnectionManager></PeerConnectionManager>"
+                    + "<PeerConnectionID>-1</PeerConnectionID>"
+                    + "<Direction>Input</Direction>"
+                    + "<Status>Unknown</Status>",
+            action -> ((GetCurrentConnectionInfoAction) action).getStatus()
+    ),
+    GetProtocolInfo(
+            services -> new GetProtocolInfoAction(services.connectionManager),
+            "<Source></Source>"
+                    + "<Sink>http-get:*:audio/mpeg:*,http-get:*:video/mp4:*,"
+                    + "http-get:*:image/jpeg:*</Sink>",
+            action -> ((GetProtocolInfoAction) action).getSinkProtocolInfo()
+    );
+
+    private final Function<RendererServices, ActionInvocation<RemoteService>> factory;
+    private final String responseArguments;
+    private final Function<ActionInvocation<RemoteService>, Object> reader;
+
+    BenchmarkAction(Function<RendererServices, ActionInvocation<RemoteService>> factory) {
+        this(factory, null, null);
+    }
+
+    BenchmarkAction(Function<RendererServices, ActionInvocation<RemoteService>> factory,
+                    String responseArguments,
+                    Function<ActionInvocation<RemoteService>, Object> reader) {
+        this.factory = factory;
+        this.responseArguments = responseArguments;
+        this.reader = reader;
+    }
+
+    ActionInvocation<RemoteService> create(RendererServices services) {
+        return factory.apply(services);
+    }
+
+    boolean hasResponse() {
+        return reader != null;
+    }
+
+    /**
+     * Build the SOAP response body the renderer would send for this action.
+     */
+    String cannedResponse(RemoteService service) {
+        return "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+                + "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\""
+                + " s:encodingStyle=\"http://schemas.xmlsoap.org/soap/encoding/\">"
+                + "<s:Body>"
+                + "<u:" + name() + "Response xmlns:u=\"" + service.getServiceType() + "\">"
+                + responseArguments
+                + "</u:" + name() + "Response>"
+                + "</s:Body>"
+                + "</s:Envelope>";
+    }
+
+    Object read(ActionInvocation<RemoteService> action) {
+        return reader.apply(action);
+    }
+
+    private static UnsignedIntegerFourBytes instanceId() {
+        return new UnsignedIntegerFourBytes(0);
+    }
+}
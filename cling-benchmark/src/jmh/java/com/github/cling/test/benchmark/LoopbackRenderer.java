@@ -0,0 +1,131 @@
+package com.github.cling.test.benchmark;
+
+import com.github.cling.test.instrument.loopback.LoopbackNetwork;
+import com.github.cling.test.instrument.loopback.LoopbackUpnpService;
+
+import org.fourthline.cling.binding.LocalServiceBinder;
+import org.fourthline.cling.binding.annotations.AnnotationLocalServiceBinder;
+import org.fourthline.cling.model.DefaultServiceManager;
+import org.fourthline.cling.model.meta.DeviceDetails;
+import org.fourthline.cling.model.meta.DeviceIdentity;
+import org.fourthline.cling.model.meta.LocalDevice;
+import org.fourthline.cling.model.meta.LocalService;
+import org.fourthline.cling.model.meta.RemoteDevice;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.model.types.UDADeviceType;
+import org.fourthline.cling.model.types.UDAServiceId;
+import org.fourthline.cling.model.types.UDN;
+import org.fourthline.cling.model.types.UnsignedIntegerFourBytes;
+import org.fourthline.cling.model.types.UnsignedIntegerTwoBytes;
+import org.fourthline.cling.support.connectionmanager.ConnectionManagerService;
+import org.fourthline.cling.support.model.Channel;
+import org.fourthline.cling.support.renderingcontrol.AbstractAudioRenderingControl;
+
+/**
+ * A renderer and a control point connected by a {@link LoopbackNetwork}.
+ * <p>
+ * The renderer hosts the ConnectionManager of cling-support and an in-memory RenderingControl,
+ * and the control point has discovered it, so actions executed by the control point go through
+ * the full SOAP processing on both sides without any socket.
+ */
+final class LoopbackRenderer {
+    private static final long DISCOVERY_TIMEOUT_MILLIS = 10000;
+
+    final LoopbackNetwork network = new LoopbackNetwork();
+    final LoopbackUpnpService rendererService = new LoopbackUpnpService(network);
+    final LoopbackUpnpService controlPointService = new LoopbackUpnpService(network);
+    final RemoteService renderingControl;
+    final RemoteService connectionManager;
+
+    LoopbackRenderer() throws Exception {
+        UDN udn = UDN.uniqueSystemIdentifier("cling-benchmark-loopback");
+        rendererService.getRegistry().addDevice(createDevice(udn));
+        controlPointService.getControlPoint().search();
+
+        long deadline = System.currentTimeMillis() + DISCOVERY_TIMEOUT_MILLIS;
+        RemoteDevice device;
+        while ((device = controlPointService.getRegistry().getRemoteDevice(udn, true)) == null) {
+            if (System.currentTimeMillis() > deadline) {
+                shutdown();
+                throw new IllegalStateException("Loopback renderer not discovered");
+            }
+            Thread.sleep(10);
+        }
+        renderingControl = device.findService(new UDAServiceId("RenderingControl"));
+        connectionManager = device.findService(new UDAServiceId("ConnectionManager"));
+    }
+
+    void shutdown() {
+        controlPointService.shutdown();
+        rendererService.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LocalDevice createDevice(UDN udn) throws Exception {
+        LocalServiceBinder binder = new AnnotationLocalServiceBinder();
+
+        LocalService<ConnectionManagerService> connectionManager =
+                binder.read(ConnectionManagerService.class);
+        connectionManager.setManager(
+                new DefaultServiceManager<>(connectionManager, ConnectionManagerService.class)
+        );
+
+        LocalService<InMemoryRenderingControl> renderingControl =
+                binder.read(InMemoryRenderingControl.class);
+        renderingControl.setManager(
+                new DefaultServiceManager<InMemoryRenderingControl>(renderingControl) {
+                    @Override
+                    protected InMemoryRenderingControl createServiceInstance() {
+                        return new InMemoryRenderingControl();
+                    }
+                }
+        );
+
+        return new LocalDevice(
+                new DeviceIdentity(udn),
+                new UDADeviceType("MediaRenderer", 1),
+                new DeviceDetails("Loopback Renderer"),
+                new LocalService[]{renderingControl, connectionManager}
+        );
+    }
+
+    static class InMemoryRenderingControl extends AbstractAudioRenderingControl {
+        private volatile int volume = 0;
+        private volatile boolean mute = false;
+
+        @Override
+        public boolean getMute(UnsignedIntegerFourBytes instanceId, String channelName) {
+            return mute;
+        }
+
+        @Override
+        public void setMute(UnsignedIntegerFourBytes instanceId,
+                            String channelName,
+                            boolean desiredMute) {
+            mute = desiredMute;
+        }
+
+        @Override
+        public UnsignedIntegerTwoBytes getVolume(UnsignedIntegerFourBytes instanceId,
+                                                 String channelName) {
+            return new UnsignedIntegerTwoBytes(volume);
+        }
+
+        @Override
+        public void setVolume(UnsignedIntegerFourBytes instanceId,
+                              String channelName,
+                              UnsignedIntegerTwoBytes desiredVolume) {
+            volume = desiredVolume.getValue().intValue();
+        }
+
+        @Override
+        protected Channel[] getCurrentChannels() {
+            return new Channel[]{Channel.Master};
+        }
+
+        @Override
+        public UnsignedIntegerFourBytes[] getCurrentInstanceIds() {
+            return new UnsignedIntegerFourBytes[]{new UnsignedIntegerFourBytes(0)};
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.cling.test.benchmark;
+
+import com.github.cling.test.instrument.connectionmanager.GetCurrentConnectionIDsAction;
+import com.github.cling.test.instrument.connectionmanager.GetProtocolInfoAction;
+import com.github.cling.test.instrument.renderingcontrol.GetMuteAction;
+import com.github.cling.test.instrument.renderingcontrol.GetVolumeAction;
+import com.github.cling.test.instrument.renderingcontrol.SetVolumeAction;
+
+import org.fourthline.cling.controlpoint.ActionCallback;
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.model.types.UnsignedIntegerFourBytes;
+import org.fourthline.cling.model.types.UnsignedIntegerTwoBytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Execute actions from a control point against a renderer over the loopback network.
+ * <p>
+ * Every invocation covers marshalling the request, dispatching it to the action of the
+ * renderer, marshalling the response and unmarshalling it again, but no network, so it is the
+ * protocol processing cost of a real round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoopbackRoundTripBenchmark {
+    @Param({
+            "GetMute",
+            "GetVolume",
+            "SetVolume",
+            "GetCurrentConnectionIDs",
+            "GetProtocolInfo"
+    })
+    public String action;
+
+    private LoopbackRenderer renderer;
+
+    @Setup
+    public void setUp() throws Exception {
+        renderer = new LoopbackRenderer();
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderer.shutdown();
+    }
+
+    @Benchmark
+    public ActionInvocation<RemoteService> execute() {
+        ActionInvocation<RemoteService> invocation = create();
+        // Run the callback on the calling thread instead of the executor of control point
+        new ActionCallback.Default(
+                invocation,
+                renderer.controlPointService.getControlPoint()
+        ).run();
+        if (invocation.getFailure() != null) {
+            throw new IllegalStateException(invocation.getFailure());
+        }
+        return invocation;
+    }
+
+    private ActionInvocation<RemoteService> create() {
+        UnsignedIntegerFourBytes instanceId = new UnsignedIntegerFourBytes(0);
+        switch (action) {
+            case "GetMute":
+                return new GetMuteAction(renderer.renderingControl, instanceId, "Master");
+            case "GetVolume":
+                return new GetVolumeAction(renderer.renderingControl, instanceId, "Master");
+            case "SetVolume":
+                return new SetVolumeAction(
+                        renderer.renderingControl,
+                        instanceId,
+                        "Master",
+                        new UnsignedIntegerTwoBytes(50)
+                );
+            case "GetCurrentConnectionIDs":
+                return new GetCurrentConnectionIDsAction(renderer.connectionManager);
+            case "GetProtocolInfo":
+                return new GetProtocolInfoAction(renderer.connectionManager);
+            default:
+                throw new IllegalArgumentException("Unknown action " + action);
+        }
+    }
+}
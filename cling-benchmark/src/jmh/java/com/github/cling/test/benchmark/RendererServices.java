@@ -0,0 +1,70 @@
+package com.github.cling.test.benchmark;
+
+import org.fourthline.cling.binding.xml.UDA10ServiceDescriptorBinderImpl;
+import org.fourthline.cling.binding.annotations.AnnotationLocalServiceBinder;
+import org.fourthline.cling.model.meta.DeviceDetails;
+import org.fourthline.cling.model.meta.LocalService;
+import org.fourthline.cling.model.meta.RemoteDevice;
+import org.fourthline.cling.model.meta.RemoteDeviceIdentity;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.model.types.UDADeviceType;
+import org.fourthline.cling.model.types.UDN;
+import org.fourthline.cling.support.avtransport.AbstractAVTransportService;
+import org.fourthline.cling.support.connectionmanager.ConnectionManagerService;
+import org.fourthline.cling.support.renderingcontrol.AbstractAudioRenderingControl;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URL;
+
+/**
+ * Remote services of a media renderer, built without any network.
+ * <p>
+ * The service descriptors are generated from the annotated services of cling-support and then
+ * parsed again, which is the same way a control point hydrates the services of a discovered
+ * renderer.
+ */
+final class RendererServices {
+    final RemoteService avTransport;
+    final RemoteService renderingControl;
+    final RemoteService connectionManager;
+
+    RendererServices() throws Exception {
+        avTransport = describe(AbstractAVTransportService.class, "AVTransport");
+        renderingControl = describe(AbstractAudioRenderingControl.class, "RenderingControl");
+        connectionManager = describe(ConnectionManagerService.class, "ConnectionManager");
+    }
+
+    static URL controlUrl(RemoteService service) throws Exception {
+        return service.getDevice().normalizeURI(service.getControlURI());
+    }
+
+    private static RemoteService describe(Class<?> serviceClass, String name) throws Exception {
+        LocalService<?> localService = new AnnotationLocalServiceBinder().read(serviceClass);
+        UDA10ServiceDescriptorBinderImpl binder = new UDA10ServiceDescriptorBinderImpl();
+        String descriptor = binder.generate(localService);
+
+        RemoteService undescribed =
+                new RemoteService(
+                        localService.getServiceType(),
+                        localService.getServiceId(),
+                        URI.create("/svc/" + name + "/desc.xml"),
+                        URI.create("/svc/" + name + "/action"),
+                        URI.create("/svc/" + name + "/event")
+                );
+        // The constructor attaches the service to the device
+        new RemoteDevice(
+                new RemoteDeviceIdentity(
+                        UDN.uniqueSystemIdentifier("cling-benchmark"),
+                        1800,
+                        new URL("http://127.0.0.1:49152/desc.xml"),
+                        null,
+                        InetAddress.getLoopbackAddress()
+                ),
+                new UDADeviceType("MediaRenderer", 1),
+                new DeviceDetails("Benchmark Renderer"),
+                undescribed
+        );
+        return binder.describe(undescribed, descriptor);
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.message.UpnpResponse;
+
+/**
+ * Failure of an action executed by {@link TestHelper#executeActionAsync}.
+ * <p>
+ * The {@link UpnpResponse} is null when the action failed before a response was received, for
+ * example when the control URL could not be reached.
+ */
+public class ActionFailedException extends RuntimeException {
+    private final ActionInvocation<?> invocation;
+    private final UpnpResponse response;
+
+    public ActionFailedException(ActionInvocation<?> invocation,
+                                 UpnpResponse response,
+                                 String defaultMsg) {
+        super(defaultMsg, invocation.getFailure());
+        this.invocation = invocation;
+        this.response = response;
+    }
+
+    public ActionInvocation<?> getInvocation() {
+        return invocation;
+    }
+
+    public UpnpResponse getResponse() {
+        return response;
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.cling.test.instrument;
+
+import android.util.Log;
+
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.meta.Device;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the latency of every action executed by {@link TestHelper}, keyed by action name and
+ * device UDN.
+ */
+public final class ActionLatencyRecorder {
+    public static final String REPORT_FILE_NAME = "action-latency.json";
+
+    private static final String TAG = "ActionLatencyRecorder";
+    private static final ActionLatencyRecorder INSTANCE = new ActionLatencyRecorder();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private ActionLatencyRecorder() {
+    }
+
+    public static ActionLatencyRecorder getInstance() {
+        return INSTANCE;
+    }
+
+    public void record(ActionInvocation<RemoteService> action, long nanos, boolean succeeded) {
+        String actionName = action.getAction().getName();
+        String device = getDeviceName(action.getAction().getService().getDevice());
+        Entry entry =
+                entries.computeIfAbsent(
+                        actionName + "@" + device,
+                        key -> new Entry(actionName, device)
+                );
+        entry.histogram.recordNanos(nanos);
+        if (!succeeded) {
+            entry.failures.incrementAndGet();
+        }
+    }
+
+    public LatencyHistogram getHistogram(String actionName, String device) {
+        Entry entry = entries.get(actionName + "@" + device);
+        return entry == null ? null : entry.histogram;
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    public JSONObject toJson() throws JSONException {
+        JSONArray actions = new JSONArray();
+        // Sort by key, so reports of different runs are easy to diff
+        for (Entry entry : new TreeMap<>(entries).values()) {
+            LatencyHistogram histogram = entry.histogram;
+            actions.put(
+                    new JSONObject()
+                            .put("action", entry.actionName)
+                            .put("device", entry.device)
+                            .put("count", histogram.getCount())
+                            .put("failures", entry.failures.get())
+                            .put("meanMillis", histogram.getMeanMicros() / 1000.0)
+                            .put("p50Millis", histogram.getPercentileMicros(50) / 1000.0)
+                            .put("p95Millis", histogram.getPercentileMicros(95) / 1000.0)
+                            .put("p99Millis", histogram.getPercentileMicros(99) / 1000.0)
+                            .put("maxMillis", histogram.getMaxMicros() / 1000.0)
+            );
+        }
+        return new JSONObject()
+                .put("generatedAtMillis", System.currentTimeMillis())
+                .put("actions", actions);
+    }
+
+    /**
+     * Write the report to the given directory, and return the written file.
+     */
+    public File writeReport(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create directory " + directory);
+        }
+        File file = new File(directory, REPORT_FILE_NAME);
+        try (Writer writer =
+                     new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(toJson().toString(2));
+        } catch (JSONException e) {
+            throw new IOException("Failed to build latency report", e);
+        }
+        Log.i(TAG, "Wrote action latency report to " + file);
+        return file;
+    }
+
+    private static String getDeviceName(Device<?, ?, ?> device) {
+        return device == null ? "unknown" : device.getIdentity().getUdn().toString();
+    }
+
+    private static final class Entry {
+        private final String actionName;
+        private final String device;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final AtomicLong failures = new AtomicLong();
+
+        Entry(String actionName, String device) {
+            this.actionName = actionName;
+            this.device = device;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.cling.test.instrument;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes the report of {@link ActionLatencyRecorder} when the test run finishes.
+ * <p>
+ * Register it with the instrumentation argument
+ * {@code listener=com.github.cling.test.instrument.ActionLatencyReportListener}. The report is
+ * written to the additional test output directory when the runner provides one, so it is pulled
+ * with the test results, otherwise to the external files directory of the target app.
+ */
+public class ActionLatencyReportListener extends RunListener {
+    private static final String TAG = "ActionLatencyReport";
+    private static final String ADDITIONAL_TEST_OUTPUT_DIR = "additionalTestOutputDir";
+
+    @Override
+    public void testRunFinished(Result result) {
+        try {
+            ActionLatencyRecorder.getInstance().writeReport(getReportDirectory());
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write action latency report", e);
+        }
+    }
+
+    private static File getReportDirectory() {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        String additionalTestOutputDir = arguments.getString(ADDITIONAL_TEST_OUTPUT_DIR);
+        if (additionalTestOutputDir != null) {
+            return new File(additionalTestOutputDir);
+        }
+        return InstrumentationRegistry.getInstrumentation()
+                .getTargetContext()
+                .getExternalFilesDir(null);
+    }
+}
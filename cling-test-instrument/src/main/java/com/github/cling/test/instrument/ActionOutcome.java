@@ -0,0 +1,62 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.meta.RemoteService;
+
+import java.util.concurrent.TimeUnit;
+
+public class ActionOutcome {
+    private final ActionInvocation<RemoteService> action;
+    private final Throwable failure;
+    private final long startNanos;
+    private final long endNanos;
+
+    ActionOutcome(ActionInvocation<RemoteService> action,
+                  Throwable failure,
+                  long startNanos,
+                  long endNanos) {
+        this.action = action;
+        this.failure = failure;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+    }
+
+    public ActionInvocation<RemoteService> getAction() {
+        return action;
+    }
+
+    public boolean isSucceeded() {
+        return failure == null;
+    }
+
+    /**
+     * Get the failure of action, it is {@link ActionFailedException} when the renderer reported
+     * a failure, and {@link java.util.concurrent.TimeoutException} when the action timed out.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    public long getDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(getDurationNanos());
+    }
+
+    @Override
+    public String toString() {
+        return action.getAction().getName()
+                + (isSucceeded() ? " succeeded" : " failed (" + failure + ")")
+                + " in " + getDurationMillis() + "ms";
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.UpnpService;
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.meta.RemoteService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Execute a batch of actions with at most {@code maxInFlight} of them running at the same time.
+ */
+public class BatchActionExecutor {
+    private final UpnpService upnpService;
+    private final int maxInFlight;
+    private final long maxWaitTimeMillis;
+
+    public BatchActionExecutor(UpnpService upnpService, int maxInFlight) {
+        this(upnpService, maxInFlight, TestHelper.MAX_WAIT_MILLIS);
+    }
+
+    public BatchActionExecutor(UpnpService upnpService, int maxInFlight, long maxWaitTimeMillis) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.upnpService = upnpService;
+        this.maxInFlight = maxInFlight;
+        this.maxWaitTimeMillis = maxWaitTimeMillis;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Execute all actions and wait for all of them to finish.
+     * <p>
+     * A failed action doesn't stop the batch, its failure is recorded in its
+     * {@link ActionOutcome}.
+     */
+    public BatchResult execute(Collection<? extends ActionInvocation<RemoteService>> actions)
+            throws InterruptedException {
+        Semaphore permits = new Semaphore(maxInFlight);
+        List<CompletableFuture<ActionOutcome>> pending = new ArrayList<>(actions.size());
+        long batchStartNanos = System.nanoTime();
+        for (ActionInvocation<RemoteService> action : actions) {
+            permits.acquire();
+            long startNanos = System.nanoTime();
+            CompletableFuture<ActionInvocation<RemoteService>> future;
+            try {
+                future = TestHelper.executeActionAsync(upnpService, action, maxWaitTimeMillis);
+            } catch (RuntimeException e) {
+                // Failed before it was submitted, the permit would never be released otherwise
+                permits.release();
+                pending.add(
+                        CompletableFuture.completedFuture(
+                                new ActionOutcome(action, e, startNanos, System.nanoTime())
+                        )
+                );
+                continue;
+            }
+            pending.add(
+                    future.handle((invocation, failure) -> {
+                        permits.release();
+                        return new ActionOutcome(
+                                action,
+                                failure,
+                                startNanos,
+                                System.nanoTime()
+                        );
+                    })
+            );
+        }
+        List<ActionOutcome> outcomes = new ArrayList<>(pending.size());
+        for (CompletableFuture<ActionOutcome> outcome : pending) {
+            outcomes.add(outcome.join());
+        }
+        return new BatchResult(outcomes, System.nanoTime() - batchStartNanos);
+    }
+}
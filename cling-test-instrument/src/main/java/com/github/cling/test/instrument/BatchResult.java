@@ -0,0 +1,71 @@
+package com.github.cling.test.instrument;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class BatchResult {
+    private final List<ActionOutcome> outcomes;
+    private final long elapsedNanos;
+
+    BatchResult(List<ActionOutcome> outcomes, long elapsedNanos) {
+        this.outcomes = Collections.unmodifiableList(outcomes);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get outcomes in the same order as the actions passed to the executor.
+     */
+    public List<ActionOutcome> getOutcomes() {
+        return outcomes;
+    }
+
+    public int getSucceededCount() {
+        int count = 0;
+        for (ActionOutcome outcome : outcomes) {
+            if (outcome.isSucceeded()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getFailedCount() {
+        return outcomes.size() - getSucceededCount();
+    }
+
+    public boolean isAllSucceeded() {
+        return getFailedCount() == 0;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Get the sum of all action durations, compare it with {@link #getElapsedNanos()} to see
+     * how much the concurrent execution saved.
+     */
+    public long getTotalActionNanos() {
+        long total = 0;
+        for (ActionOutcome outcome : outcomes) {
+            total += outcome.getDurationNanos();
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{"
+                + "actions=" + outcomes.size()
+                + ", succeeded=" + getSucceededCount()
+                + ", failed=" + getFailedCount()
+                + ", elapsedMillis=" + getElapsedMillis()
+                + ", totalActionMillis=" + TimeUnit.NANOSECONDS.toMillis(getTotalActionNanos())
+                + "}";
+    }
+}
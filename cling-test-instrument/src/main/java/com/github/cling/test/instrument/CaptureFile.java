@@ -0,0 +1,222 @@
+package com.github.cling.test.instrument;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only file of {@link CaptureRecord}s, written through a memory mapping so capturing
+ * doesn't add a system call to every message exchange.
+ * <p>
+ * The file has a fixed capacity which is mapped when it's created. Records which don't fit
+ * anymore are dropped and counted. The header holds the end of the last complete record,
+ * which is only advanced after the record is written, so a reader never sees a partial
+ * record.
+ */
+public class CaptureFile implements Closeable {
+    public static final int DEFAULT_CAPACITY = 16 * 1024 * 1024;
+
+    private static final int MAGIC = 0x434c4350;
+    private static final int VERSION = 1;
+    private static final int END_OFFSET = 8;
+    private static final int HEADER_SIZE = 16;
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final MappedByteBuffer buffer;
+    private int recordCount = 0;
+    private long droppedCount = 0;
+    private boolean closed = false;
+
+    private CaptureFile(File file, int capacity) throws IOException {
+        if (capacity <= HEADER_SIZE) {
+            throw new IllegalArgumentException("capacity is too small: " + capacity);
+        }
+        this.file = file;
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(0);
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(HEADER_SIZE);
+    }
+
+    /**
+     * Create a new capture file, replacing an existing one.
+     */
+    public static CaptureFile create(File file) throws IOException {
+        return create(file, DEFAULT_CAPACITY);
+    }
+
+    public static CaptureFile create(File file, int capacity) throws IOException {
+        return new CaptureFile(file, capacity);
+    }
+
+    /**
+     * Read all complete records of a capture file, which may still be written.
+     */
+    public static List<CaptureRecord> read(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            MappedByteBuffer buffer =
+                    input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length());
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a capture file: " + file);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported capture version " + buffer.getInt(4));
+            }
+            long end = buffer.getLong(END_OFFSET);
+            buffer.position(HEADER_SIZE);
+            List<CaptureRecord> records = new ArrayList<>();
+            while (buffer.position() < end) {
+                int length = buffer.getInt();
+                ByteBuffer record = buffer.slice();
+                record.limit(length);
+                records.add(decode(record));
+                buffer.position(buffer.position() + length);
+            }
+            return records;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Append the record.
+     *
+     * @return false if the record was dropped because the file is full or closed
+     */
+    public synchronized boolean append(CaptureRecord record) {
+        if (closed) {
+            return false;
+        }
+        byte[] bytes = encode(record);
+        if (buffer.remaining() < 4 + bytes.length) {
+            droppedCount++;
+            return false;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+        buffer.putLong(END_OFFSET, buffer.position());
+        recordCount++;
+        return true;
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Get the number of records dropped because the file was full.
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffer.force();
+        randomAccessFile.close();
+    }
+
+    private static byte[] encode(CaptureRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(record.getType().ordinal());
+            output.writeLong(record.getOffsetNanos());
+            output.writeLong(record.getDurationNanos());
+            writeString(output, record.getMethod());
+            writeString(output, record.getUri());
+            output.writeInt(record.getHeaders().size());
+            for (Map.Entry<String, List<String>> header : record.getHeaders().entrySet()) {
+                writeString(output, header.getKey());
+                output.writeInt(header.getValue().size());
+                for (String value : header.getValue()) {
+                    writeString(output, value);
+                }
+            }
+            writeString(output, record.getBody());
+            output.writeInt(record.getResponseStatus());
+            writeString(output, record.getResponseBody());
+        } catch (IOException e) {
+            // Not thrown by an in-memory stream
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CaptureRecord decode(ByteBuffer input) {
+        CaptureRecord.Type type = CaptureRecord.Type.values()[input.get()];
+        long offsetNanos = input.getLong();
+        long durationNanos = input.getLong();
+        String method = readString(input);
+        String uri = readString(input);
+        int headerCount = input.getInt();
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            String name = readString(input);
+            int valueCount = input.getInt();
+            List<String> values = new ArrayList<>(valueCount);
+            for (int j = 0; j < valueCount; j++) {
+                values.add(readString(input));
+            }
+            headers.put(name, values);
+        }
+        String body = readString(input);
+        int responseStatus = input.getInt();
+        String responseBody = readString(input);
+        return new CaptureRecord(
+                type,
+                offsetNanos,
+                durationNanos,
+                method,
+                uri,
+                headers,
+                body,
+                responseStatus,
+                responseBody
+        );
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer input) {
+        int length = input.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.cling.test.instrument;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A message exchange captured by {@link CapturingRouter}.
+ * <p>
+ * A request is a stream request sent by the control point, e.g. a SOAP action or a GENA
+ * subscription, together with the response status and body. A notification is a GENA event
+ * received by the control point, it has no response.
+ */
+public class CaptureRecord {
+    public enum Type {
+        REQUEST,
+        NOTIFICATION
+    }
+
+    static final String SOAP_ACTION_HEADER = "SOAPACTION";
+
+    private final Type type;
+    private final long offsetNanos;
+    private final long durationNanos;
+    private final String method;
+    private final String uri;
+    private final Map<String, List<String>> headers;
+    private final String body;
+    private final int responseStatus;
+    private final String responseBody;
+
+    CaptureRecord(Type type,
+                  long offsetNanos,
+                  long durationNanos,
+                  String method,
+                  String uri,
+                  Map<String, List<String>> headers,
+                  String body,
+                  int responseStatus,
+                  String responseBody) {
+        this.type = type;
+        this.offsetNanos = offsetNanos;
+        this.durationNanos = durationNanos;
+        this.method = method;
+        this.uri = uri;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+        this.responseStatus = responseStatus;
+        this.responseBody = responseBody;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the time the exchange started, relative to the start of the capture.
+     */
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Get the first value of the header, the name is case insensitive.
+     */
+    public String getHeader(String name) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty()) {
+                return header.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Get the HTTP status of the response, 0 if there was no response.
+     */
+    public int getResponseStatus() {
+        return responseStatus;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    /**
+     * Check if this is a SOAP action sent by the control point.
+     */
+    public boolean isAction() {
+        return type == Type.REQUEST && getHeader(SOAP_ACTION_HEADER) != null;
+    }
+
+    /**
+     * Get the name of the SOAP action, or null if this isn't an action.
+     */
+    public String getActionName() {
+        String soapAction = type == Type.REQUEST ? getHeader(SOAP_ACTION_HEADER) : null;
+        if (soapAction == null) {
+            return null;
+        }
+        // The header is "urn:schemas-upnp-org:service:AVTransport:1#Play", quoted
+        String name = soapAction.substring(soapAction.indexOf('#') + 1);
+        return name.endsWith("\"") ? name.substring(0, name.length() - 1) : name;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + method + " " + uri
+                + (isAction() ? " " + getActionName() : "")
+                + (responseStatus != 0 ? " -> " + responseStatus : "")
+                + " in " + getDurationMillis() + "ms";
+    }
+}
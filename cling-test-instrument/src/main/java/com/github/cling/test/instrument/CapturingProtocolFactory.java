@@ -0,0 +1,31 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.UpnpService;
+import org.fourthline.cling.model.message.StreamRequestMessage;
+import org.fourthline.cling.model.message.UpnpRequest;
+import org.fourthline.cling.protocol.ProtocolCreationException;
+import org.fourthline.cling.protocol.ProtocolFactoryImpl;
+import org.fourthline.cling.protocol.ReceivingSync;
+import org.fourthline.cling.transport.Router;
+
+/**
+ * Protocol factory which passes received GENA notifications to the {@link CapturingRouter} of
+ * the service, which captures them while a capture is started.
+ */
+public class CapturingProtocolFactory extends ProtocolFactoryImpl {
+    public CapturingProtocolFactory(UpnpService upnpService) {
+        super(upnpService);
+    }
+
+    @Override
+    public ReceivingSync createReceivingSync(StreamRequestMessage message)
+            throws ProtocolCreationException {
+        if (message.getOperation().getMethod() == UpnpRequest.Method.NOTIFY) {
+            Router router = getUpnpService().getRouter();
+            if (router instanceof CapturingRouter) {
+                ((CapturingRouter) router).captureNotification(message);
+            }
+        }
+        return super.createReceivingSync(message);
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.model.message.StreamRequestMessage;
+import org.fourthline.cling.model.message.StreamResponseMessage;
+import org.fourthline.cling.model.message.UpnpMessage;
+import org.fourthline.cling.transport.Router;
+import org.fourthline.cling.transport.RouterException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Router which captures stream requests sent through it to a {@link CaptureFile}, while a
+ * capture is started.
+ * <p>
+ * Received GENA notifications don't pass through the router as messages, they are captured by
+ * {@link CapturingProtocolFactory}. Without a capture, messages are passed on untouched.
+ */
+public class CapturingRouter extends ForwardingRouter {
+    private volatile Capture capture;
+
+    public CapturingRouter(Router delegate) {
+        super(delegate);
+    }
+
+    /**
+     * Start to capture into the file, replacing the current capture.
+     */
+    public void startCapture(CaptureFile file) {
+        capture = new Capture(file, System.nanoTime());
+    }
+
+    /**
+     * Stop capturing, the file is left open.
+     */
+    public void stopCapture() {
+        capture = null;
+    }
+
+    public boolean isCapturing() {
+        return capture != null;
+    }
+
+    @Override
+    public StreamResponseMessage send(StreamRequestMessage msg) throws RouterException {
+        Capture current = capture;
+        if (current == null) {
+            return super.send(msg);
+        }
+        long startNanos = System.nanoTime();
+        StreamResponseMessage response = null;
+        try {
+            response = super.send(msg);
+            return response;
+        } finally {
+            current.file.append(
+                    new CaptureRecord(
+                            CaptureRecord.Type.REQUEST,
+                            startNanos - current.startNanos,
+                            System.nanoTime() - startNanos,
+                            msg.getOperation().getHttpMethodName(),
+                            msg.getUri().toString(),
+                            copyHeaders(msg),
+                            getBody(msg),
+                            response == null ? 0 : response.getOperation().getStatusCode(),
+                            response == null ? null : getBody(response)
+                    )
+            );
+        }
+    }
+
+    void captureNotification(StreamRequestMessage msg) {
+        Capture current = capture;
+        if (current == null) {
+            return;
+        }
+        current.file.append(
+                new CaptureRecord(
+                        CaptureRecord.Type.NOTIFICATION,
+                        System.nanoTime() - current.startNanos,
+                        0,
+                        msg.getOperation().getHttpMethodName(),
+                        msg.getUri().toString(),
+                        copyHeaders(msg),
+                        getBody(msg),
+                        0,
+                        null
+                )
+        );
+    }
+
+    private static Map<String, List<String>> copyHeaders(UpnpMessage<?> msg) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> header : msg.getHeaders().entrySet()) {
+            headers.put(header.getKey(), new ArrayList<>(header.getValue()));
+        }
+        return headers;
+    }
+
+    private static String getBody(UpnpMessage<?> msg) {
+        return msg.hasBody() ? msg.getBodyString() : null;
+    }
+
+    private static final class Capture {
+        final CaptureFile file;
+        final long startNanos;
+
+        Capture(CaptureFile file, long startNanos) {
+            this.file = file;
+            this.startNanos = startNanos;
+        }
+    }
+}
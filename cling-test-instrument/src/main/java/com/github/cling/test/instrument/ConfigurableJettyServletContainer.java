@@ -0,0 +1,147 @@
+package com.github.cling.test.instrument;
+
+import android.util.Log;
+
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.bio.SocketConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.fourthline.cling.transport.spi.ServletContainerAdapter;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
+import javax.servlet.Servlet;
+
+/**
+ * Jetty servlet container owned by a single control point, with its thread pool and connectors
+ * configured from {@link StreamServerSettings}.
+ * <p>
+ * Unlike the singleton {@code JettyServletContainer} of cling, every control point gets its own
+ * server, so control points in the same process don't share a stream server.
+ */
+final class ConfigurableJettyServletContainer implements ServletContainerAdapter {
+    private static final String TAG = "JettyServletContainer";
+
+    private final StreamServerSettings settings;
+    private Server server;
+    private QueuedThreadPool threadPool;
+
+    ConfigurableJettyServletContainer(StreamServerSettings settings) {
+        this.settings = settings;
+        resetServer();
+    }
+
+    @Override
+    public synchronized void setExecutorService(ExecutorService executorService) {
+        // Jetty uses its own bounded thread pool, the shared executor of cling is left alone
+    }
+
+    @Override
+    public synchronized int addConnector(String host, int port) throws IOException {
+        SocketConnector connector = new SocketConnector();
+        connector.setHost(host);
+        connector.setPort(port);
+        connector.setAcceptors(settings.getAcceptors());
+        connector.setMaxIdleTime(settings.getIdleTimeoutMillis());
+        connector.open();
+        server.addConnector(connector);
+        if (server.isStarted()) {
+            try {
+                connector.start();
+            } catch (Exception e) {
+                throw new IOException("Failed to start connector " + host + ":" + port, e);
+            }
+        }
+        return connector.getLocalPort();
+    }
+
+    @Override
+    public synchronized void removeConnector(String host, int port) {
+        Connector[] connectors = server.getConnectors();
+        if (connectors == null) {
+            return;
+        }
+        for (Connector connector : connectors) {
+            if (connector.getHost().equals(host) && connector.getLocalPort() == port) {
+                if (connector.isStarted() || connector.isStarting()) {
+                    try {
+                        connector.stop();
+                    } catch (Exception e) {
+                        Log.e(TAG, "Failed to stop connector " + host + ":" + port, e);
+                    }
+                }
+                server.removeConnector(connector);
+                if (connectors.length == 1) {
+                    stopIfRunning();
+                }
+                break;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void registerServlet(String contextPath, Servlet servlet) {
+        if (server.getHandler() != null) {
+            return;
+        }
+        ServletContextHandler servletHandler =
+                new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
+        if (contextPath != null && contextPath.length() > 0) {
+            servletHandler.setContextPath(contextPath);
+        }
+        ServletHolder holder = new ServletHolder(servlet);
+        holder.setAsyncSupported(true);
+        servletHandler.addServlet(holder, "/*");
+        server.setHandler(servletHandler);
+    }
+
+    @Override
+    public synchronized void startIfNotRunning() {
+        if (!server.isStarted() && !server.isStarting()) {
+            Log.i(TAG, "Starting jetty server with " + settings);
+            try {
+                server.start();
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to start jetty server", e);
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void stopIfRunning() {
+        if (!server.isStopped() && !server.isStopping()) {
+            try {
+                server.stop();
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to stop jetty server", e);
+                throw new RuntimeException(e);
+            } finally {
+                resetServer();
+            }
+        }
+    }
+
+    /**
+     * Get the number of threads of the jetty thread pool, including idle and acceptor threads.
+     */
+    synchronized int getThreadCount() {
+        return threadPool.getThreads();
+    }
+
+    private void resetServer() {
+        threadPool = new QueuedThreadPool(settings.getMaxThreads());
+        threadPool.setName("ControlPointJetty");
+        threadPool.setMinThreads(settings.getMinThreads());
+        threadPool.setMaxIdleTimeMs(settings.getIdleTimeoutMillis());
+        threadPool.setMaxQueued(settings.getMaxQueuedRequests());
+        threadPool.setDaemon(true);
+        server = new Server();
+        server.setThreadPool(threadPool);
+        // Let ongoing transfers complete before stopping
+        server.setGracefulShutdown(1000);
+    }
+}
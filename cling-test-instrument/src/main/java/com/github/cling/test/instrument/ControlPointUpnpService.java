@@ -1,144 +1,331 @@
 package com.github.cling.test.instrument;
 
-import android.util.Log;
-
 import androidx.test.platform.app.InstrumentationRegistry;
 
+import com.github.cling.test.instrument.loopback.LoopbackNetwork;
+import com.github.cling.test.instrument.loopback.LoopbackRouter;
+import com.github.cling.test.instrument.loopback.LoopbackUpnpServiceConfiguration;
+
 import org.fourthline.cling.UpnpServiceImpl;
 import org.fourthline.cling.android.AndroidRouter;
 import org.fourthline.cling.android.AndroidUpnpServiceConfiguration;
 import org.fourthline.cling.model.meta.LocalDevice;
 import org.fourthline.cling.model.meta.RemoteDevice;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.model.types.ServiceId;
 import org.fourthline.cling.protocol.ProtocolFactory;
 import org.fourthline.cling.registry.Registry;
 import org.fourthline.cling.registry.RegistryListener;
 import org.fourthline.cling.transport.Router;
 import org.fourthline.cling.transport.impl.AsyncServletStreamServerConfigurationImpl;
 import org.fourthline.cling.transport.impl.AsyncServletStreamServerImpl;
-import org.fourthline.cling.transport.impl.jetty.JettyServletContainer;
+import org.fourthline.cling.transport.impl.jetty.StreamClientConfigurationImpl;
 import org.fourthline.cling.transport.spi.NetworkAddressFactory;
+import org.fourthline.cling.transport.spi.StreamClient;
 import org.fourthline.cling.transport.spi.StreamServer;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ControlPointUpnpService extends UpnpServiceImpl {
-    private TestRegistryListener registryListener = new TestRegistryListener();
+    private final RemoteServiceCache serviceCache = new RemoteServiceCache();
+    private TestRegistryListener registryListener = new TestRegistryListener(serviceCache);
+    private final Set<EventSubscription> subscriptions = ConcurrentHashMap.newKeySet();
 
     public ControlPointUpnpService() {
-        super(new TestUpnpServiceConfiguration());
+        this(new StreamServerSettings());
+    }
+
+    public ControlPointUpnpService(StreamServerSettings streamServerSettings) {
+        this(streamServerSettings, new StreamClientSettings());
+    }
+
+    public ControlPointUpnpService(StreamServerSettings streamServerSettings,
+                                   StreamClientSettings streamClientSettings) {
+        super(new TestUpnpServiceConfiguration(streamServerSettings, streamClientSettings));
+        getRegistry().addListener(registryListener);
+    }
+
+    /**
+     * Create control point attached to the given in-process network instead of the network of
+     * device, it only sees devices hosted by a
+     * {@link com.github.cling.test.instrument.loopback.LoopbackUpnpService} on the same network.
+     */
+    public ControlPointUpnpService(LoopbackNetwork network) {
+        super(new LoopbackUpnpServiceConfiguration(network));
         getRegistry().addListener(registryListener);
     }
 
+    @Override
+    protected ProtocolFactory createProtocolFactory() {
+        return new CapturingProtocolFactory(this);
+    }
+
     @Override
     protected Router createRouter(ProtocolFactory protocolFactory, Registry registry) {
-        return
-                new AndroidRouter(
-                        getConfiguration(),
-                        protocolFactory,
-                        InstrumentationRegistry.getInstrumentation().getTargetContext()
-                );
+        if (getConfiguration() instanceof LoopbackUpnpServiceConfiguration) {
+            return new CapturingRouter(
+                    new DescriptorCachingRouter(
+                            new LoopbackRouter(
+                                    (LoopbackUpnpServiceConfiguration) getConfiguration(),
+                                    protocolFactory
+                            )
+                    )
+            );
+        }
+        return new CapturingRouter(
+                new DescriptorCachingRouter(
+                        new AndroidRouter(
+                                getConfiguration(),
+                                protocolFactory,
+                                InstrumentationRegistry.getInstrumentation().getTargetContext()
+                        )
+                )
+        );
     }
 
+    /**
+     * Answer descriptor retrievals of discovered devices from the cache, and store retrieved
+     * descriptors in it. It should be enabled before searching, devices already discovered are
+     * not retrieved again.
+     */
+    public void enableDescriptorCache(DescriptorCache cache) {
+        registryListener.descriptorCache = cache;
+        getDescriptorCachingRouter().setCache(cache);
+    }
+
+    public void disableDescriptorCache() {
+        getDescriptorCachingRouter().setCache(null);
+        registryListener.descriptorCache = null;
+    }
+
+    /**
+     * Capture stream requests and GENA notifications of this control point into the file,
+     * until {@link #stopCapture()}.
+     */
+    public void startCapture(CaptureFile file) {
+        getCapturingRouter().startCapture(file);
+    }
+
+    public void stopCapture() {
+        getCapturingRouter().stopCapture();
+    }
+
+    private CapturingRouter getCapturingRouter() {
+        return (CapturingRouter) getRouter();
+    }
+
+    private DescriptorCachingRouter getDescriptorCachingRouter() {
+        return (DescriptorCachingRouter) getCapturingRouter().getDelegate();
+    }
+
+    /**
+     * Get immutable snapshot of discovered remote devices.
+     */
     public List<RemoteDevice> getRemoteDevices() {
-        return new ArrayList<>(registryListener.remoteDevices);
+        return registryListener.remoteDevices.getAll();
     }
 
+    /**
+     * Get immutable snapshot of local devices.
+     */
     public List<LocalDevice> getLocalDevices() {
-        return new ArrayList<>(registryListener.localDevices);
+        return registryListener.localDevices.getAll();
+    }
+
+    public DeviceIndex<RemoteDevice> getRemoteDeviceIndex() {
+        return registryListener.remoteDevices;
+    }
+
+    public DeviceIndex<LocalDevice> getLocalDeviceIndex() {
+        return registryListener.localDevices;
+    }
+
+    /**
+     * Find service of remote device, the result is cached until the device is updated or
+     * removed.
+     */
+    public RemoteService getRemoteService(RemoteDevice device, ServiceId serviceId) {
+        return serviceCache.get(device, serviceId);
+    }
+
+    /**
+     * Get the current number of threads of the stream server, including idle threads, it is
+     * always 0 on a loopback network.
+     */
+    public int getStreamServerThreadCount() {
+        if (!(getConfiguration() instanceof TestUpnpServiceConfiguration)) {
+            return 0;
+        }
+        return ((TestUpnpServiceConfiguration) getConfiguration()).getStreamServerThreadCount();
+    }
+
+    /**
+     * Get connection statistics of the HTTP client, it is null on a loopback network.
+     */
+    public StreamClientStats getStreamClientStats() {
+        if (!(getConfiguration() instanceof TestUpnpServiceConfiguration)) {
+            return null;
+        }
+        return ((TestUpnpServiceConfiguration) getConfiguration()).getStreamClientStats();
+    }
+
+    /**
+     * Reset control point for reuse.
+     * <p>
+     * It forgets discovered remote devices, their subscriptions and cached services, but keeps
+     * router, stream server and registry running, which is much cheaper than creating a new
+     * control point.
+     */
+    public void reset() {
+        for (EventSubscription subscription : new ArrayList<>(subscriptions)) {
+            subscription.end();
+        }
+        getRegistry().removeAllRemoteDevices();
+        // Registry notifies listeners asynchronously, so clear our view immediately
+        registryListener.remoteDevices.clear();
+        serviceCache.clear();
+        StateSignal.getInstance().signalAll();
+    }
+
+    void addSubscription(EventSubscription subscription) {
+        subscriptions.add(subscription);
+    }
+
+    void removeSubscription(EventSubscription subscription) {
+        subscriptions.remove(subscription);
     }
 
     @Override
     public synchronized void shutdown() {
-        ((AndroidRouter) getRouter()).unregisterBroadcastReceiver();
+        Router router = getCapturingRouter().getTransportRouter();
+        if (router instanceof AndroidRouter) {
+            ((AndroidRouter) router).unregisterBroadcastReceiver();
+        }
         super.shutdown();
     }
 
     private static final class TestUpnpServiceConfiguration
             extends AndroidUpnpServiceConfiguration {
-        private static final String TAG = "UpnpServiceConfig";
+        private final ConfigurableJettyServletContainer servletContainer;
+        private final StreamClientSettings streamClientSettings;
+        private final StreamClientStats streamClientStats = new StreamClientStats();
+
+        TestUpnpServiceConfiguration(StreamServerSettings serverSettings,
+                                     StreamClientSettings clientSettings) {
+            servletContainer = new ConfigurableJettyServletContainer(serverSettings);
+            streamClientSettings = clientSettings;
+        }
+
+        @Override
+        public StreamClient createStreamClient() {
+            // Keep the client configuration of the parent, with its Android timeout and
+            // User-Agent, only its client is replaced by a pooled one
+            StreamClient parentClient = super.createStreamClient();
+            parentClient.stop();
+            return new PooledStreamClient(
+                    (StreamClientConfigurationImpl) parentClient.getConfiguration(),
+                    streamClientSettings,
+                    streamClientStats
+            );
+        }
 
         @Override
         public StreamServer createStreamServer(NetworkAddressFactory networkAddressFactory) {
-            JettyServletContainer container = null;
-            try {
-                Constructor<?> constructor = JettyServletContainer.class.getDeclaredConstructor();
-                constructor.setAccessible(true);
-                container = (JettyServletContainer) constructor.newInstance();
-                Log.i(TAG, "Jetty container instance " + container);
-            } catch (NoSuchMethodException
-                    | IllegalAccessException
-                    | InstantiationException
-                    | InvocationTargetException e) {
-                Log.e(TAG, "Failed to initialize jetty container", e);
-            }
             return new AsyncServletStreamServerImpl(
                     new AsyncServletStreamServerConfigurationImpl(
-                            container == null ? JettyServletContainer.INSTANCE : container,
+                            servletContainer,
                             networkAddressFactory.getStreamListenPort()
                     )
             );
         }
+
+        int getStreamServerThreadCount() {
+            return servletContainer.getThreadCount();
+        }
+
+        StreamClientStats getStreamClientStats() {
+            return streamClientStats;
+        }
     }
 
     private static final class TestRegistryListener implements RegistryListener {
-        private List<RemoteDevice> remoteDevices = new ArrayList<>();
-        private List<LocalDevice> localDevices = new ArrayList<>();
-        private boolean hasShutdown = false;
+        private final RemoteServiceCache serviceCache;
+        private final DeviceIndex<RemoteDevice> remoteDevices = new DeviceIndex<>();
+        private final DeviceIndex<LocalDevice> localDevices = new DeviceIndex<>();
+        private volatile boolean hasShutdown = false;
+        private volatile DescriptorCache descriptorCache;
+
+        TestRegistryListener(RemoteServiceCache serviceCache) {
+            this.serviceCache = serviceCache;
+        }
 
         public boolean hasShutdown() {
             return hasShutdown;
         }
 
         @Override
-        public synchronized void remoteDeviceDiscoveryStarted(Registry registry,
-                                                              RemoteDevice device) {
+        public void remoteDeviceDiscoveryStarted(Registry registry, RemoteDevice device) {
             // Do nothing
         }
 
         @Override
-        public synchronized void remoteDeviceDiscoveryFailed(Registry registry,
-                                                             RemoteDevice device,
-                                                             Exception ex) {
+        public void remoteDeviceDiscoveryFailed(Registry registry,
+                                                RemoteDevice device,
+                                                Exception ex) {
             remoteDevices.remove(device);
+            serviceCache.invalidate(device.getIdentity().getUdn());
+            // Cached descriptors may be outdated, retrieve them again next time
+            DescriptorCache cache = descriptorCache;
+            if (cache != null && device.getIdentity().getDescriptorURL() != null) {
+                cache.invalidate(device.getIdentity().getDescriptorURL());
+            }
+            StateSignal.getInstance().signalAll();
         }
 
         @Override
-        public synchronized void remoteDeviceAdded(Registry registry, RemoteDevice device) {
-            remoteDevices.add(device);
+        public void remoteDeviceAdded(Registry registry, RemoteDevice device) {
+            remoteDevices.put(device);
+            StateSignal.getInstance().signalAll();
         }
 
         @Override
-        public synchronized void remoteDeviceUpdated(Registry registry, RemoteDevice device) {
-            remoteDevices.remove(device);
-            remoteDevices.add(device);
+        public void remoteDeviceUpdated(Registry registry, RemoteDevice device) {
+            serviceCache.invalidate(device.getIdentity().getUdn());
+            remoteDevices.put(device);
+            StateSignal.getInstance().signalAll();
         }
 
         @Override
-        public synchronized void remoteDeviceRemoved(Registry registry, RemoteDevice device) {
+        public void remoteDeviceRemoved(Registry registry, RemoteDevice device) {
             remoteDevices.remove(device);
+            serviceCache.invalidate(device.getIdentity().getUdn());
+            StateSignal.getInstance().signalAll();
         }
 
         @Override
-        public synchronized void localDeviceAdded(Registry registry, LocalDevice device) {
-            localDevices.add(device);
+        public void localDeviceAdded(Registry registry, LocalDevice device) {
+            localDevices.put(device);
+            StateSignal.getInstance().signalAll();
         }
 
         @Override
-        public synchronized void localDeviceRemoved(Registry registry, LocalDevice device) {
+        public void localDeviceRemoved(Registry registry, LocalDevice device) {
             localDevices.remove(device);
+            StateSignal.getInstance().signalAll();
         }
 
         @Override
-        public synchronized void beforeShutdown(Registry registry) {
+        public void beforeShutdown(Registry registry) {
             // Do nothing
         }
 
         @Override
-        public synchronized void afterShutdown() {
+        public void afterShutdown() {
             hasShutdown = true;
+            StateSignal.getInstance().signalAll();
         }
     }
 }
@@ -0,0 +1,166 @@
+package com.github.cling.test.instrument;
+
+import android.util.Log;
+
+import org.fourthline.cling.model.message.StreamResponseMessage;
+import org.fourthline.cling.model.message.header.ContentTypeHeader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * On-disk cache of device and service descriptors, so a restarted control point can hydrate a
+ * discovered device without fetching its descriptors again.
+ * <p>
+ * Descriptors are stored by their URL, which is the location of the device or resolved
+ * against it. UDA 1.0 has no BOOTID or CONFIGID to tell when a device changed its
+ * descriptors, so entries expire after a maximum age, and all entries of a location are dropped
+ * when discovery of a device using them fails.
+ */
+public class DescriptorCache {
+    private static final String TAG = "DescriptorCache";
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final File directory;
+    private final long maxAgeMillis;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public DescriptorCache(File directory) {
+        this(directory, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    public DescriptorCache(File directory, long maxAgeMillis) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Can't create directory " + directory);
+        }
+        this.directory = directory;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Get the cached descriptor as a response to a GET of the URI, or null when it isn't cached
+     * or has expired.
+     */
+    public StreamResponseMessage get(URI uri) {
+        File file = getFile(uri);
+        long modified = file.lastModified();
+        if (modified == 0 || System.currentTimeMillis() - modified > maxAgeMillis) {
+            missCount.increment();
+            return null;
+        }
+        String body;
+        try {
+            body = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return new StreamResponseMessage(
+                body,
+                new ContentTypeHeader(ContentTypeHeader.DEFAULT_CONTENT_TYPE_UTF8)
+        );
+    }
+
+    /**
+     * Store the response to a GET of the URI, failed and empty responses are ignored.
+     */
+    public void put(URI uri, StreamResponseMessage response) {
+        if (response.getOperation().isFailed() || !response.hasBody()) {
+            return;
+        }
+        File file = getFile(uri);
+        // Write aside and rename, a concurrent reader never sees a partial descriptor
+        File temp = new File(directory, file.getName() + ".tmp" + Thread.currentThread().getId());
+        try (OutputStream out = new FileOutputStream(temp)) {
+            out.write(response.getBodyString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write descriptor of " + uri, e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.w(TAG, "Failed to store descriptor of " + uri);
+            temp.delete();
+        }
+    }
+
+    /**
+     * Drop the descriptors of all devices at the host and port of the location.
+     */
+    public void invalidate(URL location) {
+        String prefix = getLocationPrefix(location.getHost(), location.getPort());
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(prefix));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    public void clear() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private File getFile(URI uri) {
+        return new File(
+                directory,
+                getLocationPrefix(uri.getHost(), uri.getPort()) + digest(uri.toString())
+        );
+    }
+
+    private static String getLocationPrefix(String host, int port) {
+        return String.valueOf(host).replaceAll("[^A-Za-z0-9.-]", "_") + "_" + port + "-";
+    }
+
+    private static String digest(String value) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-1")
+                    .digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder builder = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "DescriptorCache{"
+                + "directory=" + directory
+                + ", hits=" + getHitCount()
+                + ", misses=" + getMissCount()
+                + "}";
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.model.message.StreamRequestMessage;
+import org.fourthline.cling.model.message.StreamResponseMessage;
+import org.fourthline.cling.model.message.UpnpRequest;
+import org.fourthline.cling.transport.Router;
+import org.fourthline.cling.transport.RouterException;
+
+/**
+ * Router which answers GET requests from a {@link DescriptorCache}, while a cache is set.
+ * <p>
+ * A control point only sends GET requests to retrieve device and service descriptors, actions
+ * and subscriptions pass through untouched.
+ */
+public class DescriptorCachingRouter extends ForwardingRouter {
+    private volatile DescriptorCache cache;
+
+    public DescriptorCachingRouter(Router delegate) {
+        super(delegate);
+    }
+
+    public void setCache(DescriptorCache cache) {
+        this.cache = cache;
+    }
+
+    public DescriptorCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public StreamResponseMessage send(StreamRequestMessage msg) throws RouterException {
+        DescriptorCache current = cache;
+        if (current == null || msg.getOperation().getMethod() != UpnpRequest.Method.GET) {
+            return super.send(msg);
+        }
+        StreamResponseMessage cached = current.get(msg.getUri());
+        if (cached != null) {
+            return cached;
+        }
+        StreamResponseMessage response = super.send(msg);
+        if (response != null) {
+            current.put(msg.getUri(), response);
+        }
+        return response;
+    }
+}
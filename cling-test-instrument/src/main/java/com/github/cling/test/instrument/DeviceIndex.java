@@ -0,0 +1,156 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.model.meta.Device;
+import org.fourthline.cling.model.types.DeviceType;
+import org.fourthline.cling.model.types.ServiceType;
+import org.fourthline.cling.model.types.UDN;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent device registry keyed by UDN, with secondary indexes by device type and service type.
+ * <p>
+ * Writers are serialized, readers never lock. {@link #getAll()} returns an immutable snapshot
+ * which is only rebuilt after the content has changed.
+ */
+public final class DeviceIndex<D extends Device<?, ?, ?>> {
+    private final Map<UDN, D> devices = new ConcurrentHashMap<>();
+    private final Map<DeviceType, Set<UDN>> devicesByType = new ConcurrentHashMap<>();
+    private final Map<ServiceType, Set<UDN>> devicesByServiceType = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot<D> snapshot = new Snapshot<>(0, Collections.emptyList());
+
+    synchronized void put(D device) {
+        UDN udn = device.getIdentity().getUdn();
+        D previous = devices.put(udn, device);
+        if (previous != null) {
+            unindex(udn, previous);
+        }
+        index(udn, device);
+        version.incrementAndGet();
+    }
+
+    synchronized void remove(D device) {
+        UDN udn = device.getIdentity().getUdn();
+        // Compare instance rather than UDN, a late removal of a stale device must not drop the
+        // device registered again with the same UDN after a reset.
+        if (devices.get(udn) == device) {
+            devices.remove(udn);
+            unindex(udn, device);
+            version.incrementAndGet();
+        }
+    }
+
+    synchronized void clear() {
+        devices.clear();
+        devicesByType.clear();
+        devicesByServiceType.clear();
+        version.incrementAndGet();
+    }
+
+    public D get(UDN udn) {
+        return devices.get(udn);
+    }
+
+    public boolean contains(UDN udn) {
+        return devices.containsKey(udn);
+    }
+
+    public boolean isEmpty() {
+        return devices.isEmpty();
+    }
+
+    public int size() {
+        return devices.size();
+    }
+
+    /**
+     * Get immutable snapshot of all devices.
+     */
+    public List<D> getAll() {
+        Snapshot<D> current = snapshot;
+        long currentVersion = version.get();
+        if (current.version == currentVersion) {
+            return current.devices;
+        }
+        // A writer racing with us at most makes this snapshot stale, and the version check
+        // rebuilds it on the next call.
+        List<D> devices = Collections.unmodifiableList(new ArrayList<>(this.devices.values()));
+        snapshot = new Snapshot<>(currentVersion, devices);
+        return devices;
+    }
+
+    /**
+     * Get any device, or null if there is no device.
+     */
+    public D getFirst() {
+        List<D> all = getAll();
+        return all.isEmpty() ? null : all.get(0);
+    }
+
+    public List<D> getByDeviceType(DeviceType deviceType) {
+        return lookup(devicesByType.get(deviceType));
+    }
+
+    public List<D> getByServiceType(ServiceType serviceType) {
+        return lookup(devicesByServiceType.get(serviceType));
+    }
+
+    private List<D> lookup(Set<UDN> udns) {
+        if (udns == null || udns.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<D> result = new ArrayList<>(udns.size());
+        for (UDN udn : udns) {
+            D device = devices.get(udn);
+            if (device != null) {
+                result.add(device);
+            }
+        }
+        return result;
+    }
+
+    private void index(UDN udn, D device) {
+        devicesByType
+                .computeIfAbsent(device.getType(), type -> ConcurrentHashMap.newKeySet())
+                .add(udn);
+        for (ServiceType serviceType : device.findServiceTypes()) {
+            devicesByServiceType
+                    .computeIfAbsent(serviceType, type -> ConcurrentHashMap.newKeySet())
+                    .add(udn);
+        }
+    }
+
+    private void unindex(UDN udn, D device) {
+        removeFromIndex(devicesByType, device.getType(), udn);
+        for (ServiceType serviceType : device.findServiceTypes()) {
+            removeFromIndex(devicesByServiceType, serviceType, udn);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<UDN>> index, K key, UDN udn) {
+        Set<UDN> udns = index.get(key);
+        if (udns != null) {
+            udns.remove(udn);
+            if (udns.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static final class Snapshot<D> {
+        private final long version;
+        private final List<D> devices;
+
+        Snapshot(long version, List<D> devices) {
+            this.version = version;
+            this.devices = devices;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.github.cling.test.instrument;
+
+import android.util.Log;
+
+import org.fourthline.cling.controlpoint.SubscriptionCallback;
+import org.fourthline.cling.model.gena.CancelReason;
+import org.fourthline.cling.model.gena.GENASubscription;
+import org.fourthline.cling.model.message.UpnpResponse;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.model.state.StateVariableValue;
+import org.fourthline.cling.support.avtransport.lastchange.AVTransportLastChangeParser;
+import org.fourthline.cling.support.lastchange.LastChange;
+import org.fourthline.cling.support.lastchange.LastChangeParser;
+import org.fourthline.cling.support.renderingcontrol.lastchange.RenderingControlLastChangeParser;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * GENA subscription to a remote service, which buffers received events so tests can wait for
+ * a state change instead of polling it with actions.
+ * <p>
+ * The buffer is bounded, when it is full the oldest event is dropped. Subscriptions are ended
+ * by {@link ControlPointUpnpService#reset()}.
+ */
+public class EventSubscription {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final String TAG = "EventSubscription";
+
+    private final ControlPointUpnpService upnpService;
+    private final RemoteService service;
+    private final LastChangeParser lastChangeParser;
+    private final int capacity;
+    private final Callback callback;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final ArrayDeque<ServiceEvent> events = new ArrayDeque<>();
+    private long droppedCount = 0;
+    private long missedCount = 0;
+    private boolean established = false;
+    private boolean ended = false;
+
+    private EventSubscription(ControlPointUpnpService upnpService,
+                              RemoteService service,
+                              int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.upnpService = upnpService;
+        this.service = service;
+        this.lastChangeParser = createLastChangeParser(service);
+        this.capacity = capacity;
+        this.callback = new Callback(service);
+    }
+
+    public static EventSubscription subscribe(ControlPointUpnpService upnpService,
+                                              RemoteService service) {
+        return subscribe(upnpService, service, DEFAULT_CAPACITY);
+    }
+
+    public static EventSubscription subscribe(ControlPointUpnpService upnpService,
+                                              RemoteService service,
+                                              int capacity) {
+        EventSubscription subscription = new EventSubscription(upnpService, service, capacity);
+        upnpService.addSubscription(subscription);
+        upnpService.getControlPoint().execute(subscription.callback);
+        return subscription;
+    }
+
+    public RemoteService getService() {
+        return service;
+    }
+
+    /**
+     * Wait for the renderer to accept the subscription.
+     *
+     * @return true if the subscription was established before the timeout
+     */
+    public boolean awaitEstablished(long timeoutMillis) throws InterruptedException {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            while (!established && !ended) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = changed.awaitNanos(remainingNanos);
+            }
+            return established;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait for an event matching the predicate.
+     * <p>
+     * Buffered events are checked first. Events before the matching one are discarded, so
+     * consecutive calls observe consecutive changes.
+     *
+     * @return the matching event, or null if there was none before the timeout or the
+     * subscription ended
+     */
+    public ServiceEvent awaitEvent(Predicate<ServiceEvent> predicate, long timeoutMillis)
+            throws InterruptedException {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            while (true) {
+                Iterator<ServiceEvent> iterator = events.iterator();
+                while (iterator.hasNext()) {
+                    ServiceEvent event = iterator.next();
+                    iterator.remove();
+                    if (predicate.test(event)) {
+                        return event;
+                    }
+                }
+                if (ended || remainingNanos <= 0) {
+                    return null;
+                }
+                remainingNanos = changed.awaitNanos(remainingNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of events dropped because the buffer was full.
+     */
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of events the renderer sent but the control point didn't receive,
+     * detected by gaps in the event sequence.
+     */
+    public long getMissedCount() {
+        lock.lock();
+        try {
+            return missedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEnded() {
+        lock.lock();
+        try {
+            return ended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Unsubscribe from the renderer.
+     */
+    public void end() {
+        upnpService.removeSubscription(this);
+        callback.end();
+        markEnded();
+    }
+
+    private void offer(ServiceEvent event) {
+        lock.lock();
+        try {
+            if (events.size() >= capacity) {
+                events.pollFirst();
+                droppedCount++;
+            }
+            events.addLast(event);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        StateSignal.getInstance().signalAll();
+    }
+
+    private void markEstablished() {
+        lock.lock();
+        try {
+            established = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void markEnded() {
+        lock.lock();
+        try {
+            ended = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addMissed(int count) {
+        lock.lock();
+        try {
+            missedCount += count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LastChange parseLastChange(Map<String, StateVariableValue> values) {
+        StateVariableValue value = values.get("LastChange");
+        if (lastChangeParser == null || value == null || value.getValue() == null) {
+            return null;
+        }
+        try {
+            return new LastChange(lastChangeParser, value.getValue().toString());
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to parse LastChange of " + service, e);
+            return null;
+        }
+    }
+
+    private static LastChangeParser createLastChangeParser(RemoteService service) {
+        switch (service.getServiceType().getType()) {
+            case "AVTransport":
+                return new AVTransportLastChangeParser();
+            case "RenderingControl":
+                return new RenderingControlLastChangeParser();
+            default:
+                return null;
+        }
+    }
+
+    private final class Callback extends SubscriptionCallback {
+        Callback(RemoteService service) {
+            super(service);
+        }
+
+        @Override
+        protected void failed(GENASubscription subscription,
+                              UpnpResponse responseStatus,
+                              Exception exception,
+                              String defaultMsg) {
+            Log.e(TAG, "Failed to subscribe " + service + ", " + defaultMsg, exception);
+            upnpService.removeSubscription(EventSubscription.this);
+            markEnded();
+        }
+
+        @Override
+        protected void established(GENASubscription subscription) {
+            markEstablished();
+        }
+
+        @Override
+        protected void ended(GENASubscription subscription,
+                             CancelReason reason,
+                             UpnpResponse responseStatus) {
+            upnpService.removeSubscription(EventSubscription.this);
+            markEnded();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void eventReceived(GENASubscription subscription) {
+            long receivedNanos = System.nanoTime();
+            Map<String, StateVariableValue> values =
+                    new HashMap<String, StateVariableValue>(subscription.getCurrentValues());
+            offer(
+                    new ServiceEvent(
+                            subscription.getCurrentSequence().getValue(),
+                            receivedNanos,
+                            values,
+                            parseLastChange(values)
+                    )
+            );
+        }
+
+        @Override
+        protected void eventsMissed(GENASubscription subscription, int numberOfMissedEvents) {
+            addMissed(numberOfMissedEvents);
+        }
+    }
+}
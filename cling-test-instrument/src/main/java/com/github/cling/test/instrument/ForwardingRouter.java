@@ -0,0 +1,108 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.UpnpServiceConfiguration;
+import org.fourthline.cling.model.NetworkAddress;
+import org.fourthline.cling.model.message.IncomingDatagramMessage;
+import org.fourthline.cling.model.message.OutgoingDatagramMessage;
+import org.fourthline.cling.model.message.StreamRequestMessage;
+import org.fourthline.cling.model.message.StreamResponseMessage;
+import org.fourthline.cling.protocol.ProtocolFactory;
+import org.fourthline.cling.transport.Router;
+import org.fourthline.cling.transport.RouterException;
+import org.fourthline.cling.transport.spi.InitializationException;
+import org.fourthline.cling.transport.spi.UpnpStream;
+
+import java.net.InetAddress;
+import java.util.List;
+
+/**
+ * Router passing everything on to another router, subclasses override what they intercept.
+ */
+public class ForwardingRouter implements Router {
+    private final Router delegate;
+
+    public ForwardingRouter(Router delegate) {
+        this.delegate = delegate;
+    }
+
+    public Router getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Get the innermost router, which does the actual networking.
+     */
+    public Router getTransportRouter() {
+        Router router = delegate;
+        while (router instanceof ForwardingRouter) {
+            router = ((ForwardingRouter) router).getDelegate();
+        }
+        return router;
+    }
+
+    @Override
+    public UpnpServiceConfiguration getConfiguration() {
+        return delegate.getConfiguration();
+    }
+
+    @Override
+    public ProtocolFactory getProtocolFactory() {
+        return delegate.getProtocolFactory();
+    }
+
+    @Override
+    public boolean enable() throws RouterException {
+        return delegate.enable();
+    }
+
+    @Override
+    public boolean disable() throws RouterException {
+        return delegate.disable();
+    }
+
+    @Override
+    public void shutdown() throws RouterException {
+        delegate.shutdown();
+    }
+
+    @Override
+    public boolean isEnabled() throws RouterException {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public void handleStartFailure(InitializationException ex) throws InitializationException {
+        delegate.handleStartFailure(ex);
+    }
+
+    @Override
+    public List<NetworkAddress> getActiveStreamServers(InetAddress preferredAddress)
+            throws RouterException {
+        return delegate.getActiveStreamServers(preferredAddress);
+    }
+
+    @Override
+    public void received(IncomingDatagramMessage msg) {
+        delegate.received(msg);
+    }
+
+    @Override
+    public void received(UpnpStream stream) {
+        delegate.received(stream);
+    }
+
+    @Override
+    public void send(OutgoingDatagramMessage msg) throws RouterException {
+        delegate.send(msg);
+    }
+
+    @Override
+    public StreamResponseMessage send(StreamRequestMessage msg) throws RouterException {
+        return delegate.send(msg);
+    }
+
+    @Override
+    public void broadcast(byte[] bytes) throws RouterException {
+        delegate.broadcast(bytes);
+    }
+}
@@ -0,0 +1,163 @@
+package com.github.cling.test.instrument;
+
+import android.util.Log;
+
+import org.fourthline.cling.UpnpService;
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.meta.RemoteService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drive a {@link LoadMix} against a renderer for a fixed duration.
+ * <p>
+ * An open loop run dispatches actions at a fixed rate regardless of how fast the renderer
+ * answers, which shows the rate the renderer can sustain before latency degrades. A closed
+ * loop run keeps a fixed number of clients, each of them dispatching the next action when the
+ * previous one finished, which shows the max throughput for that concurrency.
+ */
+public class LoadGenerator {
+    private static final String TAG = "LoadGenerator";
+
+    private final UpnpService upnpService;
+    private final LoadMix mix;
+    private final long maxWaitTimeMillis;
+
+    public LoadGenerator(UpnpService upnpService, LoadMix mix) {
+        this(upnpService, mix, TestHelper.MAX_WAIT_MILLIS);
+    }
+
+    public LoadGenerator(UpnpService upnpService, LoadMix mix, long maxWaitTimeMillis) {
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Load mix has no action");
+        }
+        this.upnpService = upnpService;
+        this.mix = mix;
+        this.maxWaitTimeMillis = maxWaitTimeMillis;
+    }
+
+    /**
+     * Dispatch actions at the given rate for the given duration, and wait for all dispatched
+     * actions to finish.
+     */
+    public LoadReport runOpenLoop(double actionsPerSecond, long durationMillis)
+            throws InterruptedException {
+        if (actionsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + actionsPerSecond);
+        }
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / actionsPerSecond);
+        LoadReport report = new LoadReport(mix.getNames());
+        Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        for (long i = 0; ; i++) {
+            long scheduledNanos = startNanos + i * intervalNanos;
+            if (scheduledNanos - endNanos >= 0) {
+                break;
+            }
+            long waitNanos;
+            while ((waitNanos = scheduledNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            LoadMix.Entry entry = mix.pick(ThreadLocalRandom.current());
+            CompletableFuture<?> future =
+                    TestHelper.executeActionAsync(upnpService, entry.create(), maxWaitTimeMillis)
+                            .whenComplete((action, failure) -> report.record(
+                                    entry.getName(),
+                                    System.nanoTime() - scheduledNanos,
+                                    failure == null
+                            ));
+            inFlight.add(future);
+            future.whenComplete((action, failure) -> inFlight.remove(future));
+        }
+        for (CompletableFuture<?> future : new ArrayList<>(inFlight)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                // Already recorded in the report.
+            }
+        }
+        return finish("open loop at " + actionsPerSecond + "/s", report, startNanos);
+    }
+
+    /**
+     * Run the given number of clients for the given duration, each of them executing one action
+     * after another.
+     */
+    public LoadReport runClosedLoop(int clients, long durationMillis)
+            throws InterruptedException {
+        if (clients < 1) {
+            throw new IllegalArgumentException("clients must be positive: " + clients);
+        }
+        LoadReport report = new LoadReport(mix.getNames());
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        joinClients(startClients(clients, report, endNanos, "LoadClient-"));
+        return finish("closed loop with " + clients + " clients", report, startNanos);
+    }
+
+    /**
+     * Start closed loop clients, which record into the given report until the end time. The
+     * report may be shared with the clients of other generators.
+     */
+    List<Thread> startClients(int clients, LoadReport report, long endNanos, String namePrefix) {
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Thread thread = new Thread(() -> runClient(report, endNanos), namePrefix + i);
+            threads.add(thread);
+            thread.start();
+        }
+        return threads;
+    }
+
+    /**
+     * Wait for the clients to finish, they are interrupted when the wait is interrupted.
+     */
+    static void joinClients(List<Thread> threads) throws InterruptedException {
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            throw e;
+        }
+    }
+
+    private void runClient(LoadReport report, long endNanos) {
+        while (System.nanoTime() - endNanos < 0) {
+            LoadMix.Entry entry = mix.pick(ThreadLocalRandom.current());
+            ActionInvocation<RemoteService> action = entry.create();
+            long startNanos = System.nanoTime();
+            boolean succeeded;
+            try {
+                TestHelper.executeActionAsync(upnpService, action, maxWaitTimeMillis).get();
+                succeeded = true;
+            } catch (ExecutionException e) {
+                succeeded = false;
+            } catch (InterruptedException e) {
+                return;
+            }
+            report.record(entry.getName(), System.nanoTime() - startNanos, succeeded);
+        }
+    }
+
+    private static LoadReport finish(String description, LoadReport report, long startNanos) {
+        report.setElapsedNanos(System.nanoTime() - startNanos);
+        Log.i(TAG, "Finished " + description + ", " + report);
+        return report;
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.cling.test.instrument;
+
+import com.github.cling.test.instrument.avtransport.GetMediaInfoAction;
+import com.github.cling.test.instrument.avtransport.GetPositionInfoAction;
+import com.github.cling.test.instrument.avtransport.GetTransportInfoAction;
+import com.github.cling.test.instrument.connectionmanager.GetCurrentConnectionIDsAction;
+import com.github.cling.test.instrument.connectionmanager.GetProtocolInfoAction;
+import com.github.cling.test.instrument.renderingcontrol.GetMuteAction;
+import com.github.cling.test.instrument.renderingcontrol.GetVolumeAction;
+import com.github.cling.test.instrument.renderingcontrol.SetMuteAction;
+import com.github.cling.test.instrument.renderingcontrol.SetVolumeAction;
+
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.model.types.UnsignedIntegerFourBytes;
+import org.fourthline.cling.model.types.UnsignedIntegerTwoBytes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Weighted mix of actions driven by {@link LoadGenerator}.
+ * <p>
+ * An action invocation holds its output, so every entry is a factory creating a new action for
+ * every execution.
+ */
+public class LoadMix {
+    private final List<Entry> entries = new ArrayList<>();
+    private int totalWeight = 0;
+
+    /**
+     * Create a mix of the read-only actions of AVTransport, RenderingControl and
+     * ConnectionManager, which doesn't change renderer state, so it can run against any renderer
+     * passing the functional tests.
+     */
+    public static LoadMix readOnly(ControlPointUpnpService upnpService,
+                                   UnsignedIntegerFourBytes instanceId) {
+        RemoteService avTransport = UpnpServiceFetcher.getAVTransportService(upnpService);
+        RemoteService renderingControl = UpnpServiceFetcher.getAudioRenderingControl(upnpService);
+        RemoteService connectionManager =
+                UpnpServiceFetcher.getConnectionManagerService(upnpService);
+        return new LoadMix()
+                .add("GetTransportInfo", 4,
+                        () -> new GetTransportInfoAction(avTransport, instanceId))
+                .add("GetPositionInfo", 4,
+                        () -> new GetPositionInfoAction(avTransport, instanceId))
+                .add("GetMediaInfo", 1,
+                        () -> new GetMediaInfoAction(avTransport, instanceId))
+                .add("GetVolume", 2,
+                        () -> new GetVolumeAction(renderingControl, instanceId, "Master"))
+                .add("GetMute", 1,
+                        () -> new GetMuteAction(renderingControl, instanceId, "Master"))
+                .add("GetProtocolInfo", 1,
+                        () -> new GetProtocolInfoAction(connectionManager))
+                .add("GetCurrentConnectionIDs", 1,
+                        () -> new GetCurrentConnectionIDsAction(connectionManager));
+    }
+
+    /**
+     * Mix of {@link #readOnly} with volume and mute changes, about one in six actions writes.
+     */
+    public static LoadMix readWrite(ControlPointUpnpService upnpService,
+                                    UnsignedIntegerFourBytes instanceId) {
+        RemoteService renderingControl = UpnpServiceFetcher.getAudioRenderingControl(upnpService);
+        return readOnly(upnpService, instanceId)
+                .add("SetVolume", 2,
+                        () -> new SetVolumeAction(
+                                renderingControl,
+                                instanceId,
+                                "Master",
+                                new UnsignedIntegerTwoBytes(
+                                        ThreadLocalRandom.current().nextInt(101)
+                                )
+                        ))
+                .add("SetMute", 1,
+                        () -> new SetMuteAction(
+                                renderingControl,
+                                instanceId,
+                                "Master",
+                                ThreadLocalRandom.current().nextBoolean()
+                        ));
+    }
+
+    /**
+     * Add an action to the mix, it is picked with probability of its weight divided by the sum
+     * of all weights. The name is used to group the results in {@link LoadReport}.
+     */
+    public LoadMix add(String name,
+                       int weight,
+                       Supplier<? extends ActionInvocation<RemoteService>> factory) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be positive: " + weight);
+        }
+        totalWeight += weight;
+        entries.add(new Entry(name, totalWeight, factory));
+        return this;
+    }
+
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            names.add(entry.name);
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    Entry pick(Random random) {
+        int value = random.nextInt(totalWeight);
+        for (Entry entry : entries) {
+            if (value < entry.cumulativeWeight) {
+                return entry;
+            }
+        }
+        throw new IllegalStateException("Empty load mix");
+    }
+
+    static final class Entry {
+        private final String name;
+        private final int cumulativeWeight;
+        private final Supplier<? extends ActionInvocation<RemoteService>> factory;
+
+        Entry(String name,
+              int cumulativeWeight,
+              Supplier<? extends ActionInvocation<RemoteService>> factory) {
+            this.name = name;
+            this.cumulativeWeight = cumulativeWeight;
+            this.factory = factory;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        ActionInvocation<RemoteService> create() {
+            return factory.get();
+        }
+    }
+}
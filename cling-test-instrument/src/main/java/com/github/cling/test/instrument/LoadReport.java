@@ -0,0 +1,128 @@
+package com.github.cling.test.instrument;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Result of a {@link LoadGenerator} run.
+ * <p>
+ * Latency of an action is measured from the time it was scheduled to the time its result
+ * arrived. In open loop runs an action dispatched late because the generator fell behind is
+ * charged the delay, so a saturated renderer shows up in the percentiles instead of only as a
+ * lower throughput.
+ */
+public class LoadReport {
+    private final Map<String, ActionStats> stats = new LinkedHashMap<>();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private volatile long elapsedNanos;
+
+    LoadReport(Iterable<String> names) {
+        for (String name : names) {
+            stats.put(name, new ActionStats());
+        }
+    }
+
+    void record(String name, long latencyNanos, boolean succeeded) {
+        // The histogram of whole run only holds successful actions, a fast failure must not
+        // improve the percentiles.
+        ActionStats actionStats = stats.get(name);
+        if (succeeded) {
+            actionStats.histogram.recordNanos(latencyNanos);
+            histogram.recordNanos(latencyNanos);
+        } else {
+            actionStats.errors.incrementAndGet();
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public long getSucceededCount() {
+        return histogram.getCount();
+    }
+
+    public long getErrorCount() {
+        long errors = 0;
+        for (ActionStats actionStats : stats.values()) {
+            errors += actionStats.errors.get();
+        }
+        return errors;
+    }
+
+    /**
+     * Get the achieved throughput of successful actions per second.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0
+                ? 0
+                : getSucceededCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * Get the latency histogram of all successful actions.
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public LatencyHistogram getHistogram(String name) {
+        ActionStats actionStats = stats.get(name);
+        return actionStats == null ? null : actionStats.histogram;
+    }
+
+    public long getErrorCount(String name) {
+        ActionStats actionStats = stats.get(name);
+        return actionStats == null ? 0 : actionStats.errors.get();
+    }
+
+    public Map<String, LatencyHistogram> getHistograms() {
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        for (Map.Entry<String, ActionStats> entry : stats.entrySet()) {
+            histograms.put(entry.getKey(), entry.getValue().histogram);
+        }
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append("LoadReport{")
+                .append("elapsedMillis=").append(getElapsedMillis())
+                .append(", succeeded=").append(getSucceededCount())
+                .append(", errors=").append(getErrorCount())
+                .append(", throughput=").append(String.format("%.1f/s", getThroughput()))
+                .append(", ").append(formatPercentiles(histogram));
+        for (Map.Entry<String, ActionStats> entry : stats.entrySet()) {
+            ActionStats actionStats = entry.getValue();
+            builder.append(", ").append(entry.getKey()).append("={")
+                    .append("succeeded=").append(actionStats.histogram.getCount())
+                    .append(", errors=").append(actionStats.errors.get())
+                    .append(", ").append(formatPercentiles(actionStats.histogram))
+                    .append("}");
+        }
+        return builder.append("}").toString();
+    }
+
+    private static String formatPercentiles(LatencyHistogram histogram) {
+        return String.format(
+                "p50=%.1fms, p95=%.1fms, p99=%.1fms, max=%.1fms",
+                histogram.getPercentileMicros(50) / 1000.0,
+                histogram.getPercentileMicros(95) / 1000.0,
+                histogram.getPercentileMicros(99) / 1000.0,
+                histogram.getMaxMicros() / 1000.0
+        );
+    }
+
+    private static final class ActionStats {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.cling.test.instrument;
+
+import org.eclipse.jetty.client.Address;
+import org.eclipse.jetty.client.HttpClient;
+import org.fourthline.cling.model.message.StreamRequestMessage;
+import org.fourthline.cling.transport.impl.jetty.StreamClientConfigurationImpl;
+import org.fourthline.cling.transport.impl.jetty.StreamClientImpl;
+import org.fourthline.cling.transport.spi.InitializationException;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jetty stream client of cling with its keep-alive connection pool configured from
+ * {@link StreamClientSettings}, counting connection reuse into {@link StreamClientStats}.
+ * <p>
+ * A connection is recognized by its local address, a request completed on a local address
+ * seen before was sent on a pooled connection.
+ */
+final class PooledStreamClient extends StreamClientImpl {
+    private final StreamClientStats stats;
+    private final Set<Address> knownConnections = ConcurrentHashMap.newKeySet();
+
+    PooledStreamClient(StreamClientConfigurationImpl configuration,
+                       StreamClientSettings settings,
+                       StreamClientStats stats) throws InitializationException {
+        super(configuration);
+        this.stats = stats;
+        // Read when a destination is created, so it applies to the running client
+        client.setMaxConnectionsPerAddress(settings.getMaxConnectionsPerDevice());
+        // Jetty 8 hands the idle timeout to its idle queue and connector only when starting, and
+        // cling already started the client, so it's restarted when the timeout differs
+        if (client.getIdleTimeout() != settings.getIdleTimeoutMillis()) {
+            try {
+                client.stop();
+                client.setIdleTimeout(settings.getIdleTimeoutMillis());
+                client.start();
+            } catch (Exception e) {
+                throw new InitializationException(
+                        "Failed to restart HTTP client with " + settings,
+                        e
+                );
+            }
+        }
+    }
+
+    @Override
+    protected HttpContentExchange createRequest(StreamRequestMessage requestMessage) {
+        return new CountingExchange(getConfiguration(), client, requestMessage);
+    }
+
+    private final class CountingExchange extends HttpContentExchange {
+        CountingExchange(StreamClientConfigurationImpl configuration,
+                         HttpClient client,
+                         StreamRequestMessage requestMessage) {
+            super(configuration, client, requestMessage);
+        }
+
+        @Override
+        protected void onResponseComplete() throws IOException {
+            super.onResponseComplete();
+            Address localAddress = getLocalAddress();
+            if (localAddress == null) {
+                return;
+            }
+            if (knownConnections.add(localAddress)) {
+                stats.recordNewConnection();
+            } else {
+                stats.recordReusedConnection();
+            }
+        }
+
+        @Override
+        protected void onConnectionFailed(Throwable t) {
+            super.onConnectionFailed(t);
+            stats.recordConnectFailure();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.model.meta.RemoteDevice;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.model.types.ServiceId;
+import org.fourthline.cling.model.types.UDN;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of resolved remote services keyed by device UDN and {@link ServiceId}.
+ * <p>
+ * Entries of a device are dropped by {@link #invalidate(UDN)} when the registry reports the
+ * device as updated or removed.
+ */
+final class RemoteServiceCache {
+    private final Map<UDN, Map<ServiceId, RemoteService>> services = new ConcurrentHashMap<>();
+
+    RemoteService get(RemoteDevice device, ServiceId serviceId) {
+        Map<ServiceId, RemoteService> deviceServices =
+                services.computeIfAbsent(
+                        device.getIdentity().getUdn(),
+                        udn -> new ConcurrentHashMap<>()
+                );
+        RemoteService service = deviceServices.get(serviceId);
+        if (service == null) {
+            service = device.findService(serviceId);
+            if (service != null) {
+                deviceServices.put(serviceId, service);
+            }
+        }
+        return service;
+    }
+
+    void invalidate(UDN udn) {
+        services.remove(udn);
+    }
+
+    void clear() {
+        services.clear();
+    }
+}
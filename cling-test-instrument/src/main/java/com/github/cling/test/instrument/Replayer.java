@@ -0,0 +1,147 @@
+package com.github.cling.test.instrument;
+
+import android.util.Log;
+
+import org.fourthline.cling.UpnpService;
+import org.fourthline.cling.model.message.StreamRequestMessage;
+import org.fourthline.cling.model.message.StreamResponseMessage;
+import org.fourthline.cling.model.message.UpnpHeaders;
+import org.fourthline.cling.model.message.UpnpRequest;
+import org.fourthline.cling.model.meta.RemoteDevice;
+import org.fourthline.cling.transport.RouterException;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-issue the SOAP actions of a capture against a renderer, at the captured pace or faster.
+ * <p>
+ * Actions are sent at their captured offsets divided by the speed, without waiting for the
+ * previous ones, so the captured concurrency is kept. Only the path of a captured URI is kept,
+ * the host is the one of the target renderer. Control URLs contain the UDN of the renderer, so
+ * the target must have the same UDN as the captured one, e.g. a renderer with the same ID on a
+ * {@link com.github.cling.test.instrument.loopback.LoopbackNetwork}. Other requests and
+ * notifications of the capture are skipped.
+ * <p>
+ * The result is a {@link LoadReport} by action name, latency is measured from the time an
+ * action was scheduled, like an open loop run of {@link LoadGenerator}.
+ */
+public class Replayer {
+    private static final String TAG = "Replayer";
+
+    private static final ExecutorService SEND_EXECUTOR =
+            Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "Replay");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final UpnpService upnpService;
+
+    public Replayer(UpnpService upnpService) {
+        this.upnpService = upnpService;
+    }
+
+    public LoadReport replay(List<CaptureRecord> records, RemoteDevice target)
+            throws InterruptedException {
+        return replay(records, target, 1);
+    }
+
+    /**
+     * Replay the actions and wait for all of them to finish.
+     *
+     * @param speed 1 for the captured pace, 2 for twice as fast, and so on
+     */
+    public LoadReport replay(List<CaptureRecord> records, RemoteDevice target, double speed)
+            throws InterruptedException {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("speed must be positive: " + speed);
+        }
+        List<CaptureRecord> actions = new ArrayList<>();
+        Set<String> names = new LinkedHashSet<>();
+        for (CaptureRecord record : records) {
+            if (record.isAction()) {
+                actions.add(record);
+                names.add(record.getActionName());
+            }
+        }
+        if (actions.isEmpty()) {
+            throw new IllegalArgumentException("Capture has no action");
+        }
+        URI targetUri = URI.create(target.getIdentity().getDescriptorURL().toString());
+        long firstOffsetNanos = actions.get(0).getOffsetNanos();
+        LoadReport report = new LoadReport(names);
+        List<CompletableFuture<?>> pending = new ArrayList<>(actions.size());
+        long startNanos = System.nanoTime();
+        for (CaptureRecord action : actions) {
+            long scheduledNanos =
+                    startNanos + (long) ((action.getOffsetNanos() - firstOffsetNanos) / speed);
+            long waitNanos;
+            while ((waitNanos = scheduledNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            StreamRequestMessage request = createRequest(action, targetUri);
+            pending.add(CompletableFuture.runAsync(() -> report.record(
+                    action.getActionName(),
+                    System.nanoTime() - scheduledNanos,
+                    send(request)
+            ), SEND_EXECUTOR));
+        }
+        for (CompletableFuture<?> future : pending) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Log.e(TAG, "Failed to replay action", e.getCause());
+            }
+        }
+        report.setElapsedNanos(System.nanoTime() - startNanos);
+        Log.i(TAG, "Replayed " + actions.size() + " actions at speed " + speed + ", " + report);
+        return report;
+    }
+
+    private boolean send(StreamRequestMessage request) {
+        try {
+            StreamResponseMessage response = upnpService.getRouter().send(request);
+            return response != null && !response.getOperation().isFailed();
+        } catch (RouterException e) {
+            Log.e(TAG, "Failed to send " + request, e);
+            return false;
+        }
+    }
+
+    private static StreamRequestMessage createRequest(CaptureRecord action, URI targetUri) {
+        URI capturedUri = URI.create(action.getUri());
+        URI uri = targetUri.resolve(capturedUri.getRawPath());
+        StreamRequestMessage request =
+                new StreamRequestMessage(
+                        UpnpRequest.Method.getByHttpName(action.getMethod()),
+                        uri,
+                        action.getBody()
+                );
+        UpnpHeaders headers = request.getHeaders();
+        for (Map.Entry<String, List<String>> header : action.getHeaders().entrySet()) {
+            // Set again by the stream client for the target
+            if (header.getKey().equalsIgnoreCase("Host")
+                    || header.getKey().equalsIgnoreCase("Content-Length")) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                headers.add(header.getKey(), value);
+            }
+        }
+        return request;
+    }
+}
@@ -0,0 +1,248 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.UpnpService;
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.meta.RemoteService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Renderer workflow described as steps, executed as a pipeline.
+ * <p>
+ * A step is an action, a stimulus changing the renderer directly, or a wait for a state or an
+ * event. It starts as soon as the steps it runs after have succeeded, so independent steps
+ * overlap, and it's skipped when one of them failed or was skipped. A step can only run after
+ * steps added before it.
+ * <p>
+ * Actions are created again for every run, so a scenario can be run many times, also
+ * concurrently, to replay a user session at scale.
+ */
+public class Scenario {
+    private static final ExecutorService STEP_EXECUTOR =
+            Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "ScenarioStep");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final UpnpService upnpService;
+    private final long maxWaitTimeMillis;
+    private final List<Step> steps = new ArrayList<>();
+    private final Map<String, Integer> stepIndexes = new HashMap<>();
+
+    public Scenario(UpnpService upnpService) {
+        this(upnpService, TestHelper.MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * @param maxWaitTimeMillis max time of each action and wait step
+     */
+    public Scenario(UpnpService upnpService, long maxWaitTimeMillis) {
+        this.upnpService = upnpService;
+        this.maxWaitTimeMillis = maxWaitTimeMillis;
+    }
+
+    public <T extends ActionInvocation<RemoteService>> Scenario action(String name,
+                                                                       Supplier<T> factory,
+                                                                       String... after) {
+        return action(name, factory, action -> true, after);
+    }
+
+    /**
+     * Add an action, which fails when it fails on the renderer or the check doesn't pass for
+     * the executed action.
+     */
+    public <T extends ActionInvocation<RemoteService>> Scenario action(String name,
+                                                                       Supplier<T> factory,
+                                                                       Predicate<? super T> check,
+                                                                       String... after) {
+        return addStep(name, after, () ->
+                TestHelper.executeActionAsync(upnpService, factory.get(), maxWaitTimeMillis)
+                        .thenAccept(action -> {
+                            if (!check.test(action)) {
+                                throw new AssertionError("Unexpected result of " + name);
+                            }
+                        })
+        );
+    }
+
+    /**
+     * Add a change made on the renderer side, e.g. the player starting the playback.
+     */
+    public Scenario stimulus(String name, Runnable stimulus, String... after) {
+        return addStep(name, after, () -> CompletableFuture.runAsync(stimulus, STEP_EXECUTOR));
+    }
+
+    /**
+     * Add a wait until the checker passes.
+     */
+    public Scenario awaitState(String name, TestHelper.Checker checker, String... after) {
+        return addStep(name, after, () -> CompletableFuture.runAsync(() -> {
+            boolean reached =
+                    StateSignal.getInstance().await(
+                            checker,
+                            maxWaitTimeMillis,
+                            StateSignal.DEFAULT_POLL_INTERVAL_MILLIS
+                    );
+            if (!reached) {
+                throw new CompletionException(
+                        new TimeoutException(
+                                "No state of " + name + " in " + maxWaitTimeMillis + "ms"
+                        )
+                );
+            }
+        }, STEP_EXECUTOR));
+    }
+
+    /**
+     * Add a wait for an event of the subscription. Events before the matching one are
+     * discarded, so concurrent runs should use their own subscriptions.
+     */
+    public Scenario awaitEvent(String name,
+                               EventSubscription subscription,
+                               Predicate<ServiceEvent> predicate,
+                               String... after) {
+        return addStep(name, after, () -> CompletableFuture.runAsync(() -> {
+            ServiceEvent event;
+            try {
+                event = subscription.awaitEvent(predicate, maxWaitTimeMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            if (event == null) {
+                throw new CompletionException(
+                        new TimeoutException(
+                                "No event of " + name + " in " + maxWaitTimeMillis + "ms"
+                        )
+                );
+            }
+        }, STEP_EXECUTOR));
+    }
+
+    /**
+     * Run all steps and wait for the last one to finish.
+     */
+    public ScenarioResult run() throws InterruptedException {
+        try {
+            return runAsync().get();
+        } catch (ExecutionException e) {
+            // Step failures are recorded in the result, this is a bug of the scenario itself
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public CompletableFuture<ScenarioResult> runAsync() {
+        long scenarioStartNanos = System.nanoTime();
+        StepRecord[] records = new StepRecord[steps.size()];
+        // Completes with whether the step succeeded, never exceptionally
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            int index = i;
+            List<CompletableFuture<Boolean>> dependencies = new ArrayList<>(step.after.length);
+            for (int dependency : step.after) {
+                dependencies.add(results.get(dependency));
+            }
+            CompletableFuture<Void> ready =
+                    CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]));
+            results.add(ready.thenCompose(ignored -> {
+                for (CompletableFuture<Boolean> dependency : dependencies) {
+                    if (!dependency.join()) {
+                        long nowNanos = System.nanoTime() - scenarioStartNanos;
+                        records[index] =
+                                new StepRecord(
+                                        step.name,
+                                        StepRecord.Status.SKIPPED,
+                                        null,
+                                        nowNanos,
+                                        nowNanos
+                                );
+                        return CompletableFuture.completedFuture(false);
+                    }
+                }
+                long startNanos = System.nanoTime() - scenarioStartNanos;
+                return start(step).handle((result, failure) -> {
+                    long endNanos = System.nanoTime() - scenarioStartNanos;
+                    Throwable cause = unwrap(failure);
+                    records[index] =
+                            new StepRecord(
+                                    step.name,
+                                    cause == null
+                                            ? StepRecord.Status.SUCCEEDED
+                                            : StepRecord.Status.FAILED,
+                                    cause,
+                                    startNanos,
+                                    endNanos
+                            );
+                    return cause == null;
+                });
+            }));
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> new ScenarioResult(
+                        Arrays.asList(records),
+                        System.nanoTime() - scenarioStartNanos
+                ));
+    }
+
+    private Scenario addStep(String name, String[] after, Supplier<CompletableFuture<?>> body) {
+        if (stepIndexes.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate step " + name);
+        }
+        int[] dependencies = new int[after.length];
+        for (int i = 0; i < after.length; i++) {
+            Integer index = stepIndexes.get(after[i]);
+            if (index == null) {
+                throw new IllegalArgumentException(
+                        "Step " + name + " runs after unknown step " + after[i]
+                );
+            }
+            dependencies[i] = index;
+        }
+        stepIndexes.put(name, steps.size());
+        steps.add(new Step(name, dependencies, body));
+        return this;
+    }
+
+    private static CompletableFuture<?> start(Step step) {
+        try {
+            return step.body.get();
+        } catch (RuntimeException | AssertionError e) {
+            CompletableFuture<?> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            return failure.getCause();
+        }
+        return failure;
+    }
+
+    private static class Step {
+        final String name;
+        final int[] after;
+        final Supplier<CompletableFuture<?>> body;
+
+        Step(String name, int[] after, Supplier<CompletableFuture<?>> body) {
+            this.name = name;
+            this.after = after;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.cling.test.instrument;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ScenarioResult {
+    private final List<StepRecord> steps;
+    private final long elapsedNanos;
+
+    ScenarioResult(List<StepRecord> steps, long elapsedNanos) {
+        this.steps = Collections.unmodifiableList(steps);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get the timeline, in the same order as the steps were added to the scenario.
+     */
+    public List<StepRecord> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Get the record of the named step, or null if there is no such step.
+     */
+    public StepRecord getStep(String name) {
+        for (StepRecord step : steps) {
+            if (step.getName().equals(name)) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    public boolean isAllSucceeded() {
+        for (StepRecord step : steps) {
+            if (!step.isSucceeded()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder =
+                new StringBuilder("ScenarioResult{elapsedMillis=")
+                        .append(getElapsedMillis())
+                        .append("}");
+        for (StepRecord step : steps) {
+            builder.append("\n  ").append(step);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.model.message.header.DeviceTypeHeader;
+import org.fourthline.cling.model.message.header.STAllHeader;
+import org.fourthline.cling.model.message.header.ServiceTypeHeader;
+import org.fourthline.cling.model.message.header.UDADeviceTypeHeader;
+import org.fourthline.cling.model.message.header.UDAServiceTypeHeader;
+import org.fourthline.cling.model.message.header.UDNHeader;
+import org.fourthline.cling.model.message.header.UpnpHeader;
+import org.fourthline.cling.model.meta.RemoteDevice;
+import org.fourthline.cling.model.types.DeviceType;
+import org.fourthline.cling.model.types.ServiceType;
+import org.fourthline.cling.model.types.UDADeviceType;
+import org.fourthline.cling.model.types.UDAServiceType;
+import org.fourthline.cling.model.types.UDN;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Describe which remote device to discover.
+ * <p>
+ * The target provides the ST header sent with the search request, so only matching devices
+ * respond, and looks up matching devices in the index of {@link ControlPointUpnpService}.
+ */
+public final class SearchTarget {
+    private final UpnpHeader<?> header;
+    private final Function<DeviceIndex<RemoteDevice>, List<RemoteDevice>> candidates;
+    private final Predicate<RemoteDevice> predicate;
+
+    private SearchTarget(UpnpHeader<?> header,
+                         Function<DeviceIndex<RemoteDevice>, List<RemoteDevice>> candidates,
+                         Predicate<RemoteDevice> predicate) {
+        this.header = header;
+        this.candidates = candidates;
+        this.predicate = predicate;
+    }
+
+    public static SearchTarget all() {
+        return new SearchTarget(new STAllHeader(), DeviceIndex::getAll, device -> true);
+    }
+
+    public static SearchTarget mediaRenderer() {
+        return deviceType(new UDADeviceType("MediaRenderer", 1));
+    }
+
+    public static SearchTarget deviceType(DeviceType deviceType) {
+        return new SearchTarget(
+                deviceType instanceof UDADeviceType
+                        ? new UDADeviceTypeHeader((UDADeviceType) deviceType)
+                        : new DeviceTypeHeader(deviceType),
+                index -> index.getByDeviceType(deviceType),
+                device -> true
+        );
+    }
+
+    public static SearchTarget serviceType(ServiceType serviceType) {
+        return new SearchTarget(
+                serviceType instanceof UDAServiceType
+                        ? new UDAServiceTypeHeader((UDAServiceType) serviceType)
+                        : new ServiceTypeHeader(serviceType),
+                index -> index.getByServiceType(serviceType),
+                device -> true
+        );
+    }
+
+    public static SearchTarget udn(UDN udn) {
+        return new SearchTarget(
+                new UDNHeader(udn),
+                index -> {
+                    RemoteDevice device = index.get(udn);
+                    return device == null
+                            ? Collections.emptyList()
+                            : Collections.singletonList(device);
+                },
+                device -> true
+        );
+    }
+
+    /**
+     * Narrow this target with an additional predicate, which is evaluated on the devices
+     * matching the ST header of this target.
+     */
+    public SearchTarget filter(Predicate<RemoteDevice> predicate) {
+        return new SearchTarget(header, candidates, this.predicate.and(predicate));
+    }
+
+    public UpnpHeader<?> getHeader() {
+        return header;
+    }
+
+    /**
+     * Find a matching device already known to the control point, or null if there is none.
+     */
+    public RemoteDevice find(ControlPointUpnpService upnpService) {
+        for (RemoteDevice device : candidates.apply(upnpService.getRemoteDeviceIndex())) {
+            if (predicate.test(device)) {
+                return device;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return header.getString();
+    }
+}
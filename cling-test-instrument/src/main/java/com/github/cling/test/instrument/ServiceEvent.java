@@ -0,0 +1,89 @@
+package com.github.cling.test.instrument;
+
+import org.fourthline.cling.model.state.StateVariableValue;
+import org.fourthline.cling.model.types.UnsignedIntegerFourBytes;
+import org.fourthline.cling.support.lastchange.EventedValue;
+import org.fourthline.cling.support.lastchange.LastChange;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * GENA event received by {@link EventSubscription}, with the {@code LastChange} state variable
+ * decoded into typed values when the service is AVTransport or RenderingControl.
+ */
+public class ServiceEvent {
+    private final long sequence;
+    private final long receivedNanos;
+    private final Map<String, StateVariableValue> values;
+    private final LastChange lastChange;
+
+    ServiceEvent(long sequence,
+                 long receivedNanos,
+                 Map<String, StateVariableValue> values,
+                 LastChange lastChange) {
+        this.sequence = sequence;
+        this.receivedNanos = receivedNanos;
+        this.values = Collections.unmodifiableMap(values);
+        this.lastChange = lastChange;
+    }
+
+    /**
+     * Get the event sequence number, the initial event sent after subscribing is 0.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Get the {@link System#nanoTime()} when the event arrived, to measure delivery latency
+     * against the time the change was triggered.
+     */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    public Map<String, StateVariableValue> getValues() {
+        return values;
+    }
+
+    /**
+     * Get the raw value of evented state variable, or null if the event doesn't contain it.
+     */
+    public Object getValue(String name) {
+        StateVariableValue value = values.get(name);
+        return value == null ? null : value.getValue();
+    }
+
+    /**
+     * Get the decoded {@code LastChange}, or null if the event has no parsable one.
+     */
+    public LastChange getLastChange() {
+        return lastChange;
+    }
+
+    /**
+     * Get typed value of instance from {@code LastChange}, for example
+     * {@code getEventedValue(instanceId, AVTransportVariable.TransportState.class)}, or null if
+     * it isn't contained in this event.
+     */
+    public <EV extends EventedValue> EV getEventedValue(UnsignedIntegerFourBytes instanceId,
+                                                        Class<EV> type) {
+        return lastChange == null ? null : lastChange.getEventedValue(instanceId, type);
+    }
+
+    /**
+     * Same as {@link #getEventedValue(UnsignedIntegerFourBytes, Class)}, but unwrapped, for
+     * example a {@code TransportState}.
+     */
+    public <V> V getValue(UnsignedIntegerFourBytes instanceId,
+                          Class<? extends EventedValue<V>> type) {
+        EventedValue<V> value = getEventedValue(instanceId, type);
+        return value == null ? null : value.getValue();
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceEvent{sequence=" + sequence + ", values=" + values.keySet() + "}";
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.cling.test.instrument;
+
+import android.util.Log;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared {@link ControlPointUpnpService} fixture.
+ * <p>
+ * Instead of creating a control point for every test, tests {@link #acquire()} the shared one
+ * and {@link #reset()} it after each test. Call {@link #release()} from {@code @AfterClass} for
+ * class scope, or don't call it at all to share the control point across the whole suite.
+ */
+public final class SharedControlPoint {
+    private static final String TAG = "SharedControlPoint";
+
+    private static ControlPointUpnpService upnpService;
+    private static long createNanos;
+    private static long resetNanos;
+    private static int resetCount;
+
+    private SharedControlPoint() {
+    }
+
+    public static synchronized ControlPointUpnpService acquire() {
+        if (upnpService == null) {
+            long startNanos = System.nanoTime();
+            upnpService = new ControlPointUpnpService();
+            createNanos = System.nanoTime() - startNanos;
+            resetNanos = 0;
+            resetCount = 0;
+            Log.i(TAG, "Created control point in " + toMillis(createNanos) + "ms");
+        }
+        return upnpService;
+    }
+
+    public static synchronized void reset() {
+        if (upnpService == null) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        upnpService.reset();
+        resetNanos += System.nanoTime() - startNanos;
+        resetCount++;
+    }
+
+    public static synchronized void release() {
+        if (upnpService == null) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        upnpService.shutdown();
+        long shutdownNanos = System.nanoTime() - startNanos;
+        upnpService = null;
+        // Every reset replaced a shutdown and a creation of control point
+        long savedNanos = resetCount * (createNanos + shutdownNanos) - resetNanos;
+        Log.i(
+                TAG,
+                "Released control point, create " + toMillis(createNanos) + "ms"
+                        + ", shutdown " + toMillis(shutdownNanos) + "ms"
+                        + ", " + resetCount + " resets in " + toMillis(resetNanos) + "ms"
+                        + ", saved about " + toMillis(savedNanos) + "ms"
+        );
+    }
+
+    public static synchronized long getCreateMillis() {
+        return toMillis(createNanos);
+    }
+
+    public static synchronized long getTotalResetMillis() {
+        return toMillis(resetNanos);
+    }
+
+    public static synchronized int getResetCount() {
+        return resetCount;
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
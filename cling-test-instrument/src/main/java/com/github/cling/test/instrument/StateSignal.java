@@ -0,0 +1,85 @@
+package com.github.cling.test.instrument;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Process-wide signal used to wake up threads waiting for a state change.
+ * <p>
+ * The registry listener of {@link ControlPointUpnpService} and the action callbacks of
+ * {@link TestHelper} invoke {@link #signalAll()} whenever something observable changes, so
+ * waiters re-check their condition immediately instead of spinning. State that is changed
+ * without a signal, for example renderer state changed directly by the test, is still picked
+ * up by a bounded fallback poll.
+ */
+public final class StateSignal {
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 50;
+
+    private static final StateSignal INSTANCE = new StateSignal();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private long version = 0;
+
+    private StateSignal() {
+    }
+
+    public static StateSignal getInstance() {
+        return INSTANCE;
+    }
+
+    public void signalAll() {
+        lock.lock();
+        try {
+            version++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until the checker passes or the max wait time elapses.
+     *
+     * @return true if the checker passed before the deadline
+     */
+    public boolean await(TestHelper.Checker checker,
+                         long maxWaitTimeMillis,
+                         long pollIntervalMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitTimeMillis);
+        long pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, pollIntervalMillis));
+        while (true) {
+            long observedVersion = currentVersion();
+            if (checker.check()) {
+                return true;
+            }
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return false;
+            }
+            lock.lock();
+            try {
+                // Only sleep if nothing has been signaled since the checker was evaluated,
+                // otherwise we would miss the wake up.
+                if (version == observedVersion) {
+                    changed.awaitNanos(Math.min(remainingNanos, pollIntervalNanos));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return checker.check();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private long currentVersion() {
+        lock.lock();
+        try {
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
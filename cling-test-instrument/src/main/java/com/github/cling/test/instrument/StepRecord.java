@@ -0,0 +1,77 @@
+package com.github.cling.test.instrument;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timeline entry of a {@link Scenario} step. Times are relative to the start of the run.
+ */
+public class StepRecord {
+    public enum Status {
+        SUCCEEDED,
+        FAILED,
+        SKIPPED
+    }
+
+    private final String name;
+    private final Status status;
+    private final Throwable failure;
+    private final long startNanos;
+    private final long endNanos;
+
+    StepRecord(String name, Status status, Throwable failure, long startNanos, long endNanos) {
+        this.name = name;
+        this.status = status;
+        this.failure = failure;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSucceeded() {
+        return status == Status.SUCCEEDED;
+    }
+
+    /**
+     * Get the failure of a failed step, it is {@link ActionFailedException} when the renderer
+     * reported a failure, and {@link java.util.concurrent.TimeoutException} when an action or a
+     * wait timed out.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    public long getStartMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(startNanos);
+    }
+
+    public long getDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(getDurationNanos());
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + status
+                + (failure != null ? " (" + failure + ")" : "")
+                + " at " + getStartMillis() + "ms"
+                + " in " + getDurationMillis() + "ms";
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.cling.test.instrument;
+
+/**
+ * Settings of the HTTP client which sends actions, subscriptions and descriptor retrievals of
+ * the control point.
+ * <p>
+ * Connections are kept alive and pooled per device, a device is addressed by the host and port
+ * of its URLs. Requests beyond the pool size wait for a free connection.
+ */
+public class StreamClientSettings {
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_DEVICE = 4;
+    // Jetty's default, so the client isn't restarted, and below the usual idle timeout of servers,
+    // so a pooled connection is rarely closed by the renderer while the request is on its way
+    public static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 20000;
+
+    private int maxConnectionsPerDevice = DEFAULT_MAX_CONNECTIONS_PER_DEVICE;
+    private int idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+
+    public int getMaxConnectionsPerDevice() {
+        return maxConnectionsPerDevice;
+    }
+
+    public void setMaxConnectionsPerDevice(int maxConnectionsPerDevice) {
+        this.maxConnectionsPerDevice = maxConnectionsPerDevice;
+    }
+
+    /**
+     * Get the idle time after which a pooled connection is closed.
+     */
+    public int getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(int idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamClientSettings{"
+                + "maxConnectionsPerDevice=" + maxConnectionsPerDevice
+                + ", idleTimeoutMillis=" + idleTimeoutMillis
+                + "}";
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.cling.test.instrument;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection statistics of the HTTP client of a control point, to see how often requests reuse
+ * a pooled connection.
+ * <p>
+ * The counters survive the client being recreated when the network changes.
+ */
+public final class StreamClientStats {
+    private final LongAdder newConnectionCount = new LongAdder();
+    private final LongAdder reusedConnectionCount = new LongAdder();
+    private final LongAdder connectFailureCount = new LongAdder();
+
+    void recordNewConnection() {
+        newConnectionCount.increment();
+    }
+
+    void recordReusedConnection() {
+        reusedConnectionCount.increment();
+    }
+
+    void recordConnectFailure() {
+        connectFailureCount.increment();
+    }
+
+    /**
+     * Get the number of completed requests which had to open a connection.
+     */
+    public long getNewConnectionCount() {
+        return newConnectionCount.sum();
+    }
+
+    /**
+     * Get the number of completed requests which were sent on a pooled connection.
+     */
+    public long getReusedConnectionCount() {
+        return reusedConnectionCount.sum();
+    }
+
+    public long getConnectFailureCount() {
+        return connectFailureCount.sum();
+    }
+
+    public long getRequestCount() {
+        return getNewConnectionCount() + getReusedConnectionCount();
+    }
+
+    public void reset() {
+        newConnectionCount.reset();
+        reusedConnectionCount.reset();
+        connectFailureCount.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "StreamClientStats{"
+                + "requests=" + getRequestCount()
+                + ", newConnections=" + getNewConnectionCount()
+                + ", reusedConnections=" + getReusedConnectionCount()
+                + ", connectFailures=" + getConnectFailureCount()
+                + "}";
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.cling.test.instrument;
+
+/**
+ * Settings of the jetty server which receives GENA notifications and serves requests for the
+ * control point.
+ * <p>
+ * The defaults are sized for a test control point on a phone. Jetty's defaults allow up to 254
+ * threads, which is far more than a control point needs.
+ */
+public class StreamServerSettings {
+    public static final int DEFAULT_MIN_THREADS = 2;
+    public static final int DEFAULT_MAX_THREADS = 8;
+    public static final int DEFAULT_ACCEPTORS = 1;
+    public static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 30000;
+    public static final int DEFAULT_MAX_QUEUED_REQUESTS = 64;
+
+    private int minThreads = DEFAULT_MIN_THREADS;
+    private int maxThreads = DEFAULT_MAX_THREADS;
+    private int acceptors = DEFAULT_ACCEPTORS;
+    private int idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private int maxQueuedRequests = DEFAULT_MAX_QUEUED_REQUESTS;
+
+    public int getMinThreads() {
+        return minThreads;
+    }
+
+    public void setMinThreads(int minThreads) {
+        this.minThreads = minThreads;
+    }
+
+    /**
+     * Get the max size of thread pool, it includes the acceptor threads.
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public int getAcceptors() {
+        return acceptors;
+    }
+
+    public void setAcceptors(int acceptors) {
+        this.acceptors = acceptors;
+    }
+
+    /**
+     * Get the idle time after which both connections and idle pool threads are closed.
+     */
+    public int getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(int idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Get the max number of requests waiting for a free thread, further requests are rejected.
+     */
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    public void setMaxQueuedRequests(int maxQueuedRequests) {
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamServerSettings{"
+                + "minThreads=" + minThreads
+                + ", maxThreads=" + maxThreads
+                + ", acceptors=" + acceptors
+                + ", idleTimeoutMillis=" + idleTimeoutMillis
+                + ", maxQueuedRequests=" + maxQueuedRequests
+                + "}";
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.cling.test.instrument;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Hammer a renderer from several control points at once, each of them with several threads,
+ * while probing invariants of the renderer.
+ * <p>
+ * Every control point runs the closed loop clients of a {@link LoadGenerator} over its mix, all
+ * of them recording into one {@link LoadReport}. Invariants are checked periodically during the
+ * run, and once more after all threads stopped, when the renderer must have settled.
+ */
+public class StressRunner {
+    private static final String TAG = "StressRunner";
+    // Keep the violations readable when an invariant is broken for the whole run
+    private static final int MAX_VIOLATIONS = 100;
+
+    private final Map<LoadGenerator, LoadMix> generators = new LinkedHashMap<>();
+    private final Map<String, Invariant> invariants = new LinkedHashMap<>();
+    private final int threadsPerControlPoint;
+    private final List<String> violations = new ArrayList<>();
+    private int violationCount = 0;
+
+    public StressRunner(List<ControlPointUpnpService> controlPoints,
+                        Function<ControlPointUpnpService, LoadMix> mixFactory,
+                        int threadsPerControlPoint) {
+        this(controlPoints, mixFactory, threadsPerControlPoint, TestHelper.MAX_WAIT_MILLIS);
+    }
+
+    public StressRunner(List<ControlPointUpnpService> controlPoints,
+                        Function<ControlPointUpnpService, LoadMix> mixFactory,
+                        int threadsPerControlPoint,
+                        long maxWaitTimeMillis) {
+        if (controlPoints.isEmpty()) {
+            throw new IllegalArgumentException("No control point");
+        }
+        if (threadsPerControlPoint < 1) {
+            throw new IllegalArgumentException(
+                    "threadsPerControlPoint must be positive: " + threadsPerControlPoint
+            );
+        }
+        for (ControlPointUpnpService controlPoint : controlPoints) {
+            LoadMix mix = mixFactory.apply(controlPoint);
+            generators.put(new LoadGenerator(controlPoint, mix, maxWaitTimeMillis), mix);
+        }
+        this.threadsPerControlPoint = threadsPerControlPoint;
+    }
+
+    public StressRunner addInvariant(String name, Invariant invariant) {
+        invariants.put(name, invariant);
+        return this;
+    }
+
+    /**
+     * Run for the given duration, checking invariants at the given interval.
+     *
+     * @return throughput and latency of the actions of all control points, violations of
+     * invariants are available from {@link #getViolations()} afterwards
+     */
+    public LoadReport run(long durationMillis, long probeIntervalMillis)
+            throws InterruptedException {
+        Set<String> names = new LinkedHashSet<>();
+        for (LoadMix mix : generators.values()) {
+            names.addAll(mix.getNames());
+        }
+        LoadReport report = new LoadReport(names);
+        synchronized (this) {
+            violations.clear();
+            violationCount = 0;
+        }
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        List<Thread> threads = new ArrayList<>();
+        int index = 0;
+        for (LoadGenerator generator : generators.keySet()) {
+            threads.addAll(
+                    generator.startClients(
+                            threadsPerControlPoint,
+                            report,
+                            endNanos,
+                            "StressClient-" + index + "-"
+                    )
+            );
+            index++;
+        }
+        try {
+            long probeIntervalNanos = TimeUnit.MILLISECONDS.toNanos(probeIntervalMillis);
+            while (System.nanoTime() - endNanos < 0) {
+                TimeUnit.NANOSECONDS.sleep(
+                        Math.min(probeIntervalNanos, Math.max(0, endNanos - System.nanoTime()))
+                );
+                probe(startNanos, false);
+            }
+        } catch (InterruptedException e) {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            throw e;
+        }
+        LoadGenerator.joinClients(threads);
+        report.setElapsedNanos(System.nanoTime() - startNanos);
+        probe(startNanos, true);
+        Log.i(
+                TAG,
+                "Finished " + generators.size() + " control points with "
+                        + threadsPerControlPoint + " threads each, " + report
+                        + ", violations=" + getViolationCount()
+        );
+        return report;
+    }
+
+    /**
+     * Get the first violations of invariants of the last run, in the order they were detected.
+     */
+    public synchronized List<String> getViolations() {
+        return Collections.unmodifiableList(new ArrayList<>(violations));
+    }
+
+    public synchronized int getViolationCount() {
+        return violationCount;
+    }
+
+    public synchronized boolean isConsistent() {
+        return violationCount == 0;
+    }
+
+    private void probe(long startNanos, boolean settled) {
+        long offsetMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        for (Map.Entry<String, Invariant> entry : invariants.entrySet()) {
+            String violation;
+            try {
+                violation = entry.getValue().check();
+            } catch (RuntimeException e) {
+                violation = e.toString();
+            }
+            if (violation != null) {
+                addViolation(
+                        entry.getKey() + (settled ? " after run" : " at " + offsetMillis + "ms")
+                                + ": " + violation
+                );
+            }
+        }
+    }
+
+    private synchronized void addViolation(String violation) {
+        violationCount++;
+        if (violations.size() < MAX_VIOLATIONS) {
+            violations.add(violation);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Invariant {
+        /**
+         * @return null if the invariant holds, otherwise a description of the violation
+         */
+        String check();
+    }
+}
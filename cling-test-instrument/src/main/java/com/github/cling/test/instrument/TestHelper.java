@@ -13,40 +13,58 @@ import org.fourthline.cling.model.message.UpnpResponse;
 import org.fourthline.cling.model.meta.RemoteDevice;
 import org.fourthline.cling.model.meta.RemoteService;
 
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class TestHelper {
     public static final int MAX_WAIT_MILLIS = 5000;
 
     private static final String TAG = "TestHelper";
+    private static final ScheduledThreadPoolExecutor DEADLINE_SCHEDULER =
+            createDeadlineScheduler();
 
     public static RemoteDevice searchRemoteDevice(ControlPointUpnpService upnpService) {
+        return searchRemoteDevice(upnpService, SearchTarget.mediaRenderer());
+    }
+
+    /**
+     * Search remote device matching the target.
+     * <p>
+     * A device already known to the control point is returned without searching. Otherwise the
+     * search request only asks for the target, and this method returns as soon as a matching
+     * device is added.
+     */
+    public static RemoteDevice searchRemoteDevice(ControlPointUpnpService upnpService,
+                                                  SearchTarget target) {
         for (int i = 0; i < 10; i++) {
-            Log.e(TAG, "Start to search upnp device, index " + i);
-            upnpService.getControlPoint().search();
-            waitState(
-                    () -> upnpService.getRemoteDevices().size() > 0,
-                    MAX_WAIT_MILLIS
-            );
-            List<RemoteDevice> remoteDevices = upnpService.getRemoteDevices();
-            if (remoteDevices.size() > 0) {
-                return remoteDevices.get(0);
+            RemoteDevice remoteDevice = target.find(upnpService);
+            if (remoteDevice != null) {
+                return remoteDevice;
             }
+            Log.e(TAG, "Start to search upnp device " + target + ", index " + i);
+            upnpService.getControlPoint().search(target.getHeader());
+            waitState(() -> target.find(upnpService) != null, MAX_WAIT_MILLIS);
         }
-        fail("Failed to search remote devices");
+        fail("Failed to search remote device " + target);
         return null;
     }
 
     public static void waitState(Checker checker, long maxWaitTimeMillis) {
-        long startTimeMillis = System.currentTimeMillis();
-        while (System.currentTimeMillis() - startTimeMillis <= maxWaitTimeMillis) {
-            if (checker.check()) {
-                return;
-            }
-        }
+        waitState(checker, maxWaitTimeMillis, StateSignal.DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    public static void waitState(Checker checker,
+                                 long maxWaitTimeMillis,
+                                 long pollIntervalMillis) {
+        StateSignal.getInstance().await(checker, maxWaitTimeMillis, pollIntervalMillis);
     }
 
     public static <T extends Activity> ActivityScenario<T> getScenario(
@@ -56,32 +74,94 @@ public class TestHelper {
 
     public static <T extends ActionInvocation<RemoteService>> void executeAction(
             UpnpService upnpService, T action) {
-        int[] result = new int[1];
-        upnpService.getControlPoint().execute(new ActionCallback(action) {
+        boolean succeeded = false;
+        try {
+            executeActionAsync(upnpService, action).get();
+            succeeded = true;
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Failed to execute " + action, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Log.e(TAG, "Interrupted while executing " + action);
+        }
+        assertTrue("Failed to execute " + action, succeeded);
+    }
+
+    public static <T extends ActionInvocation<RemoteService>> CompletableFuture<T>
+    executeActionAsync(UpnpService upnpService, T action) {
+        return executeActionAsync(upnpService, action, MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * Execute action without blocking the caller.
+     * <p>
+     * The returned future completes with the action itself when it succeeds, so the typed
+     * getters of the action can be used from the continuation. It completes exceptionally with
+     * {@link ActionFailedException} when the action fails, and with {@link TimeoutException}
+     * when no result arrives within the given time.
+     */
+    public static <T extends ActionInvocation<RemoteService>> CompletableFuture<T>
+    executeActionAsync(UpnpService upnpService, T action, long maxWaitTimeMillis) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long startNanos = System.nanoTime();
+        Future<?> execution = upnpService.getControlPoint().execute(new ActionCallback(action) {
             @Override
             public void success(ActionInvocation invocation) {
-                result[0] = 1;
+                result.complete(action);
+                StateSignal.getInstance().signalAll();
             }
 
             @Override
             public void failure(ActionInvocation invocation,
                                 UpnpResponse operation,
                                 String defaultMsg) {
-                result[0] = -1;
                 Log.e(
                         TAG,
                         "Failed to execute " + action
                                 + ", " + defaultMsg
                                 + ", operation " + operation
                 );
+                result.completeExceptionally(
+                        new ActionFailedException(action, operation, defaultMsg)
+                );
+                StateSignal.getInstance().signalAll();
             }
         });
-        waitState(() -> result[0] != 0, MAX_WAIT_MILLIS);
-        assertEquals(1, result[0]);
+        ScheduledFuture<?> deadline = DEADLINE_SCHEDULER.schedule(
+                () -> {
+                    TimeoutException timeout =
+                            new TimeoutException(
+                                    "No result for " + action
+                                            + " in " + maxWaitTimeMillis + "ms"
+                            );
+                    if (result.completeExceptionally(timeout)) {
+                        execution.cancel(true);
+                    }
+                },
+                maxWaitTimeMillis,
+                TimeUnit.MILLISECONDS
+        );
+        result.whenComplete((invocation, throwable) -> {
+            deadline.cancel(false);
+            ActionLatencyRecorder.getInstance()
+                    .record(action, System.nanoTime() - startNanos, throwable == null);
+        });
+        return result;
+    }
+
+    private static ScheduledThreadPoolExecutor createDeadlineScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "ActionDeadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Most actions finish long before their deadline, don't keep the cancelled timers
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
     }
 
     @FunctionalInterface
-    private interface Checker {
+    public interface Checker {
         boolean check();
     }
 }
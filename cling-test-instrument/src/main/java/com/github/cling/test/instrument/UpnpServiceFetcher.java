@@ -4,18 +4,31 @@ import org.fourthline.cling.model.meta.RemoteDevice;
 import org.fourthline.cling.model.meta.RemoteService;
 import org.fourthline.cling.model.types.ServiceId;
 import org.fourthline.cling.model.types.UDAServiceId;
+import org.fourthline.cling.model.types.UDN;
 
 import static org.junit.Assert.assertNotNull;
 
 public class UpnpServiceFetcher {
     public static RemoteService getService(ControlPointUpnpService upnpService,
                                            String serviceName) {
-        RemoteDevice remoteDevice = TestHelper.searchRemoteDevice(upnpService);
+        return getService(upnpService, SearchTarget.mediaRenderer(), serviceName);
+    }
+
+    /**
+     * Get the service of the renderer matching the target, e.g. {@link SearchTarget#udn(UDN)}
+     * when several renderers are on the network.
+     */
+    public static RemoteService getService(ControlPointUpnpService upnpService,
+                                           SearchTarget target,
+                                           String serviceName) {
+        // The search only hits the network when no renderer is known yet, and the service of
+        // a known renderer is resolved from the cache of control point.
+        RemoteDevice remoteDevice = TestHelper.searchRemoteDevice(upnpService, target);
         assertNotNull(remoteDevice);
         ServiceId serviceId = new UDAServiceId(serviceName);
-        RemoteService connectionManagerService = remoteDevice.findService(serviceId);
-        assertNotNull(connectionManagerService);
-        return connectionManagerService;
+        RemoteService service = upnpService.getRemoteService(remoteDevice, serviceId);
+        assertNotNull(service);
+        return service;
     }
 
     public static RemoteService getConnectionManagerService(ControlPointUpnpService upnpService) {
@@ -30,4 +43,19 @@ public class UpnpServiceFetcher {
     public static RemoteService getAVTransportService(ControlPointUpnpService upnpService) {
         return getService(upnpService, "AVTransport");
     }
+
+    public static RemoteService getConnectionManagerService(ControlPointUpnpService upnpService,
+                                                            UDN udn) {
+        return getService(upnpService, SearchTarget.udn(udn), "ConnectionManager");
+    }
+
+    public static RemoteService getAudioRenderingControl(ControlPointUpnpService upnpService,
+                                                         UDN udn) {
+        return getService(upnpService, SearchTarget.udn(udn), "RenderingControl");
+    }
+
+    public static RemoteService getAVTransportService(ControlPointUpnpService upnpService,
+                                                      UDN udn) {
+        return getService(upnpService, SearchTarget.udn(udn), "AVTransport");
+    }
 }
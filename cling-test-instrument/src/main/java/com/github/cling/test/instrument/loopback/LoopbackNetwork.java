@@ -0,0 +1,84 @@
+package com.github.cling.test.instrument.loopback;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process network connecting {@link LoopbackRouter}s in the same process without sockets.
+ * <p>
+ * Every router gets its own virtual port on the loopback address, which is used both as the
+ * source port of its datagrams and as the port of its stream server, so unicast datagrams and
+ * HTTP requests are routed by port only. Nothing is ever bound, so any number of networks can
+ * exist side by side.
+ */
+public final class LoopbackNetwork {
+    private static final int FIRST_PORT = 40000;
+
+    private final InetAddress address = InetAddress.getLoopbackAddress();
+    private final AtomicInteger nextPort = new AtomicInteger(FIRST_PORT);
+    private final Map<Integer, LoopbackRouter> routers = new ConcurrentHashMap<>();
+    private final AtomicLong datagramCount = new AtomicLong();
+    private final AtomicLong streamRequestCount = new AtomicLong();
+
+    public InetAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Get the number of datagrams delivered, a multicast datagram is counted once per receiver.
+     */
+    public long getDatagramCount() {
+        return datagramCount.get();
+    }
+
+    public long getStreamRequestCount() {
+        return streamRequestCount.get();
+    }
+
+    int allocatePort() {
+        return nextPort.getAndIncrement();
+    }
+
+    void attach(LoopbackRouter router) {
+        routers.put(router.getPort(), router);
+    }
+
+    void detach(LoopbackRouter router) {
+        routers.remove(router.getPort(), router);
+    }
+
+    LoopbackRouter getStreamReceiver(int port) {
+        LoopbackRouter router = routers.get(port);
+        if (router != null) {
+            streamRequestCount.incrementAndGet();
+        }
+        return router;
+    }
+
+    /**
+     * Get all attached routers except the sender, which receive a multicast datagram.
+     */
+    List<LoopbackRouter> getMulticastReceivers(LoopbackRouter sender) {
+        List<LoopbackRouter> receivers = new ArrayList<>(routers.size());
+        for (LoopbackRouter router : routers.values()) {
+            if (router != sender) {
+                receivers.add(router);
+            }
+        }
+        datagramCount.addAndGet(receivers.size());
+        return receivers;
+    }
+
+    LoopbackRouter getUnicastReceiver(int port) {
+        LoopbackRouter router = routers.get(port);
+        if (router != null) {
+            datagramCount.incrementAndGet();
+        }
+        return router;
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.cling.test.instrument.loopback;
+
+import org.fourthline.cling.UpnpService;
+import org.fourthline.cling.model.message.IncomingDatagramMessage;
+import org.fourthline.cling.model.message.UpnpRequest;
+import org.fourthline.cling.protocol.async.ReceivingSearch;
+
+/**
+ * Answer a search request immediately.
+ * <p>
+ * A device waits a random time up to the MX seconds of the request before it responds, so
+ * responses of many devices don't flood the network. There is no network to flood on the
+ * loopback network, and the wait would dominate every discovery.
+ */
+class LoopbackReceivingSearch extends ReceivingSearch {
+    LoopbackReceivingSearch(UpnpService upnpService,
+                            IncomingDatagramMessage<UpnpRequest> inputMessage) {
+        super(upnpService, inputMessage);
+    }
+
+    @Override
+    protected boolean waitBeforeExecution() {
+        return true;
+    }
+}
@@ -0,0 +1,289 @@
+package com.github.cling.test.instrument.loopback;
+
+import org.fourthline.cling.model.NetworkAddress;
+import org.fourthline.cling.model.message.Connection;
+import org.fourthline.cling.model.message.IncomingDatagramMessage;
+import org.fourthline.cling.model.message.OutgoingDatagramMessage;
+import org.fourthline.cling.model.message.StreamRequestMessage;
+import org.fourthline.cling.model.message.StreamResponseMessage;
+import org.fourthline.cling.model.message.UpnpHeaders;
+import org.fourthline.cling.model.message.UpnpRequest;
+import org.fourthline.cling.model.message.UpnpResponse;
+import org.fourthline.cling.protocol.ProtocolCreationException;
+import org.fourthline.cling.protocol.ProtocolFactory;
+import org.fourthline.cling.protocol.ReceivingAsync;
+import org.fourthline.cling.transport.Router;
+import org.fourthline.cling.transport.spi.InitializationException;
+import org.fourthline.cling.transport.spi.UnsupportedDataException;
+import org.fourthline.cling.transport.spi.UpnpStream;
+
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Router delivering messages through a {@link LoopbackNetwork} instead of sockets.
+ * <p>
+ * Datagrams are still written and read by the datagram processor of the configuration, and
+ * stream requests are dispatched to the protocols of the receiving service the same way a
+ * stream server does it, so all protocol processing is kept and only the network is left out.
+ * A stream request is processed on the thread of the sender.
+ */
+public class LoopbackRouter implements Router {
+    private static final Logger log = Logger.getLogger(LoopbackRouter.class.getName());
+
+    private final LoopbackUpnpServiceConfiguration configuration;
+    private final ProtocolFactory protocolFactory;
+    private final LoopbackNetwork network;
+    private final int port;
+    private volatile boolean enabled = false;
+
+    public LoopbackRouter(LoopbackUpnpServiceConfiguration configuration,
+                          ProtocolFactory protocolFactory) {
+        this.configuration = configuration;
+        this.protocolFactory = protocolFactory;
+        this.network = configuration.getNetwork();
+        this.port = network.allocatePort();
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public LoopbackUpnpServiceConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public ProtocolFactory getProtocolFactory() {
+        return protocolFactory;
+    }
+
+    @Override
+    public synchronized boolean enable() {
+        if (enabled) {
+            return false;
+        }
+        network.attach(this);
+        enabled = true;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean disable() {
+        if (!enabled) {
+            return false;
+        }
+        network.detach(this);
+        enabled = false;
+        return true;
+    }
+
+    @Override
+    public void shutdown() {
+        disable();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void handleStartFailure(InitializationException ex) throws InitializationException {
+        throw ex;
+    }
+
+    @Override
+    public List<NetworkAddress> getActiveStreamServers(InetAddress preferredAddress) {
+        if (!enabled) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new NetworkAddress(network.getAddress(), port));
+    }
+
+    @Override
+    public void received(IncomingDatagramMessage msg) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ReceivingAsync protocol = isSearchRequest(msg)
+                    ? new LoopbackReceivingSearch(protocolFactory.getUpnpService(), msg)
+                    : protocolFactory.createReceivingAsync(msg);
+            if (protocol != null) {
+                configuration.getAsyncProtocolExecutor().execute(protocol);
+            }
+        } catch (ProtocolCreationException ex) {
+            log.warning("Handling received datagram failed: " + ex);
+        }
+    }
+
+    @Override
+    public void received(UpnpStream stream) {
+        if (!enabled) {
+            return;
+        }
+        configuration.getSyncProtocolExecutorService().execute(stream);
+    }
+
+    @Override
+    public void send(OutgoingDatagramMessage msg) {
+        if (!enabled) {
+            return;
+        }
+        DatagramPacket packet = configuration.getDatagramProcessor().write(msg);
+        if (msg.getDestinationAddress().isMulticastAddress()) {
+            for (LoopbackRouter receiver : network.getMulticastReceivers(this)) {
+                receiver.receiveDatagram(packet, port);
+            }
+        } else {
+            LoopbackRouter receiver = network.getUnicastReceiver(msg.getDestinationPort());
+            if (receiver != null) {
+                receiver.receiveDatagram(packet, port);
+            }
+        }
+    }
+
+    @Override
+    public StreamResponseMessage send(StreamRequestMessage msg) {
+        if (!enabled) {
+            return null;
+        }
+        LoopbackRouter receiver = network.getStreamReceiver(msg.getUri().getPort());
+        if (receiver == null) {
+            // Same as a refused connection
+            log.fine("No loopback router listening on " + msg.getUri());
+            return null;
+        }
+        return receiver.receiveStream(msg);
+    }
+
+    @Override
+    public void broadcast(byte[] bytes) {
+        // Only used for Wake-on-LAN, there is nothing to wake up on the loopback network
+    }
+
+    private void receiveDatagram(DatagramPacket packet, int sourcePort) {
+        if (!enabled) {
+            return;
+        }
+        // The datagram processor takes the source of a received message from the packet
+        DatagramPacket received =
+                new DatagramPacket(
+                        packet.getData(),
+                        packet.getOffset(),
+                        packet.getLength(),
+                        network.getAddress(),
+                        sourcePort
+                );
+        try {
+            received(configuration.getDatagramProcessor().read(network.getAddress(), received));
+        } catch (UnsupportedDataException ex) {
+            log.fine("Could not read datagram: " + ex.getMessage());
+        }
+    }
+
+    private StreamResponseMessage receiveStream(StreamRequestMessage request) {
+        if (!enabled) {
+            return null;
+        }
+        return new LoopbackStream(protocolFactory, network.getAddress()).handle(request);
+    }
+
+    private static boolean isSearchRequest(IncomingDatagramMessage msg) {
+        return msg.getOperation() instanceof UpnpRequest
+                && ((UpnpRequest) msg.getOperation()).getMethod() == UpnpRequest.Method.MSEARCH;
+    }
+
+    /**
+     * Stream of one request, processed synchronously on the thread of the sender.
+     */
+    private static final class LoopbackStream extends UpnpStream {
+        private final Connection connection;
+
+        LoopbackStream(ProtocolFactory protocolFactory, InetAddress address) {
+            super(protocolFactory);
+            connection = new LoopbackConnection(address);
+        }
+
+        StreamResponseMessage handle(StreamRequestMessage request) {
+            StreamResponseMessage response = process(toReceivedRequest(request));
+            if (response == null) {
+                response = new StreamResponseMessage(UpnpResponse.Status.NOT_FOUND);
+            }
+            StreamResponseMessage received = toReceivedResponse(response);
+            responseSent(response);
+            return received;
+        }
+
+        @Override
+        public void run() {
+            // Nothing to do, the request is handled by handle() on the thread of the sender
+        }
+
+        /**
+         * Copy the request the way a stream server receives it, the protocols of the receiving
+         * service only accept the path of the URI.
+         */
+        private StreamRequestMessage toReceivedRequest(StreamRequestMessage request) {
+            URI uri = request.getUri();
+            String path = uri.getRawQuery() == null
+                    ? uri.getRawPath()
+                    : uri.getRawPath() + "?" + uri.getRawQuery();
+            StreamRequestMessage received =
+                    new StreamRequestMessage(request.getOperation().getMethod(), URI.create(path));
+            received.getOperation().setHttpMinorVersion(
+                    request.getOperation().getHttpMinorVersion()
+            );
+            received.setHeaders(new UpnpHeaders(request.getHeaders()));
+            if (request.getBody() != null) {
+                received.setBody(request.getBodyType(), request.getBody());
+            }
+            received.setConnection(connection);
+            return received;
+        }
+
+        private static StreamResponseMessage toReceivedResponse(StreamResponseMessage response) {
+            StreamResponseMessage received =
+                    new StreamResponseMessage(
+                            new UpnpResponse(
+                                    response.getOperation().getStatusCode(),
+                                    response.getOperation().getStatusMessage()
+                            )
+                    );
+            received.setHeaders(new UpnpHeaders(response.getHeaders()));
+            if (response.getBody() != null) {
+                received.setBody(response.getBodyType(), response.getBody());
+            }
+            return received;
+        }
+    }
+
+    private static final class LoopbackConnection implements Connection {
+        private final InetAddress address;
+
+        LoopbackConnection(InetAddress address) {
+            this.address = address;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public InetAddress getRemoteAddress() {
+            return address;
+        }
+
+        @Override
+        public InetAddress getLocalAddress() {
+            return address;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.cling.test.instrument.loopback;
+
+import org.fourthline.cling.UpnpServiceImpl;
+import org.fourthline.cling.protocol.ProtocolFactory;
+import org.fourthline.cling.registry.Registry;
+import org.fourthline.cling.registry.RegistryListener;
+import org.fourthline.cling.transport.Router;
+
+/**
+ * UPnP service attached to a {@link LoopbackNetwork}, for example to host the local devices
+ * under test in the same process as the control point.
+ */
+public class LoopbackUpnpService extends UpnpServiceImpl {
+    public LoopbackUpnpService(LoopbackNetwork network, RegistryListener... registryListeners) {
+        super(new LoopbackUpnpServiceConfiguration(network), registryListeners);
+    }
+
+    @Override
+    protected Router createRouter(ProtocolFactory protocolFactory, Registry registry) {
+        return new LoopbackRouter(
+                (LoopbackUpnpServiceConfiguration) getConfiguration(),
+                protocolFactory
+        );
+    }
+}
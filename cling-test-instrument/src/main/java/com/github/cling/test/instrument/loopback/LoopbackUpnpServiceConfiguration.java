@@ -0,0 +1,53 @@
+package com.github.cling.test.instrument.loopback;
+
+import org.fourthline.cling.DefaultUpnpServiceConfiguration;
+import org.fourthline.cling.binding.xml.DeviceDescriptorBinder;
+import org.fourthline.cling.binding.xml.ServiceDescriptorBinder;
+import org.fourthline.cling.binding.xml.UDA10DeviceDescriptorBinderSAXImpl;
+import org.fourthline.cling.binding.xml.UDA10ServiceDescriptorBinderSAXImpl;
+import org.fourthline.cling.transport.impl.PullGENAEventProcessorImpl;
+import org.fourthline.cling.transport.impl.PullSOAPActionProcessorImpl;
+import org.fourthline.cling.transport.spi.GENAEventProcessor;
+import org.fourthline.cling.transport.spi.SOAPActionProcessor;
+
+/**
+ * Configuration of a UPnP service attached to a {@link LoopbackNetwork}.
+ * <p>
+ * It uses the same pull parser message processors and SAX descriptor binders as
+ * {@code AndroidUpnpServiceConfiguration}, so loopback tests parse messages the way a device
+ * does. No network address factory, stream server or datagram IO is ever created from it,
+ * because {@link LoopbackRouter} doesn't use sockets.
+ */
+public class LoopbackUpnpServiceConfiguration extends DefaultUpnpServiceConfiguration {
+    private final LoopbackNetwork network;
+
+    public LoopbackUpnpServiceConfiguration(LoopbackNetwork network) {
+        // Skip the runtime check, the loopback network works on Android as well
+        super(false);
+        this.network = network;
+    }
+
+    public LoopbackNetwork getNetwork() {
+        return network;
+    }
+
+    @Override
+    protected SOAPActionProcessor createSOAPActionProcessor() {
+        return new PullSOAPActionProcessorImpl();
+    }
+
+    @Override
+    protected GENAEventProcessor createGENAEventProcessor() {
+        return new PullGENAEventProcessorImpl();
+    }
+
+    @Override
+    protected DeviceDescriptorBinder createDeviceDescriptorBinderUDA10() {
+        return new UDA10DeviceDescriptorBinderSAXImpl();
+    }
+
+    @Override
+    protected ServiceDescriptorBinder createServiceDescriptorBinderUDA10() {
+        return new UDA10ServiceDescriptorBinderSAXImpl();
+    }
+}
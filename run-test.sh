@@ -6,3 +6,7 @@
 ./gradlew :test-app:connectedAndroidTest
 # Show the test summary result
 python3 python-junit-result-parser/junit_result_parser.py -d test-app/build/outputs/androidTest-results/connected/
+# Copy the action latency report next to the test results
+find test-app/build/outputs/connected_android_test_additional_output \
+    -name action-latency.json \
+    -exec cp {} test-app/build/outputs/androidTest-results/connected/ \; 2>/dev/null
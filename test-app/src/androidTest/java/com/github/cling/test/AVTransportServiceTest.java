@@ -2,7 +2,9 @@ package com.github.cling.test;
 
 import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
 
+import com.github.cling.test.instrument.ActionFailedException;
 import com.github.cling.test.instrument.ControlPointUpnpService;
+import com.github.cling.test.instrument.StreamClientStats;
 import com.github.cling.test.instrument.TestHelper;
 import com.github.cling.test.instrument.UpnpServiceFetcher;
 import com.github.cling.test.instrument.avtransport.GetDeviceCapabilitiesAction;
@@ -17,6 +19,8 @@ import com.github.cling.test.instrument.avtransport.SetAVTransportURIAction;
 import com.github.cling.test.instrument.avtransport.SetNextAVTransportURIAction;
 
 import org.fourthline.cling.model.ModelUtil;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.model.types.UnsignedIntegerFourBytes;
 import org.fourthline.cling.support.model.DeviceCapabilities;
 import org.fourthline.cling.support.model.MediaInfo;
 import org.fourthline.cling.support.model.PlayMode;
@@ -30,9 +34,17 @@ import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 @RunWith(AndroidJUnit4ClassRunner.class)
 public class AVTransportServiceTest extends TestBase {
@@ -42,8 +54,9 @@ public class AVTransportServiceTest extends TestBase {
 
     @After
     public void tearDown() {
-        super.tearDown();
+        // The default renderer goes away with the activity
         ClingLocalRenderer.getLocalRender().seek(null, null);
+        super.tearDown();
     }
 
     @Test
@@ -124,6 +137,25 @@ public class AVTransportServiceTest extends TestBase {
         assertEquals(positionInfo.getRelTime(), positionInfo.getAbsTime());
     }
 
+    @Test
+    public void testPollPositionInfoReuseConnectionSucceed() {
+        RemoteService service = UpnpServiceFetcher.getAVTransportService(upnpService);
+        StreamClientStats stats = upnpService.getStreamClientStats();
+        long newConnectionCount = stats.getNewConnectionCount();
+        long reusedConnectionCount = stats.getReusedConnectionCount();
+        for (int i = 0; i < 10; i++) {
+            TestHelper.executeAction(
+                    upnpService,
+                    new GetPositionInfoAction(service, Utils.getDefaultInstanceId())
+            );
+        }
+        assertTrue(
+                stats.toString(),
+                stats.getReusedConnectionCount() - reusedConnectionCount
+                        > stats.getNewConnectionCount() - newConnectionCount
+        );
+    }
+
     @Test
     public void testGetDeviceCapabilitiesSucceed() {
         GetDeviceCapabilitiesAction action =
@@ -190,6 +222,48 @@ public class AVTransportServiceTest extends TestBase {
         assertEquals(target, ClingLocalRenderer.getLocalRender().getSeekTarget());
     }
 
+    @Test
+    public void testExecuteActionAsyncPipelinesActions() throws Exception {
+        setAVTransportURI(URI, URI_META_DATA);
+        int position = 10000;
+        ClingLocalRenderer.getControlPoint().positionChanged(position);
+        RemoteService service = UpnpServiceFetcher.getAVTransportService(upnpService);
+        List<CompletableFuture<GetPositionInfoAction>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(
+                    TestHelper.executeActionAsync(
+                            upnpService,
+                            new GetPositionInfoAction(service, Utils.getDefaultInstanceId())
+                    )
+            );
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        for (CompletableFuture<GetPositionInfoAction> future : futures) {
+            assertEquals(
+                    ModelUtil.toTimeString(position / 1000),
+                    future.get().getPositionInfo().getRelTime()
+            );
+        }
+    }
+
+    @Test
+    public void testExecuteActionAsyncReportsFailure() throws Exception {
+        GetTransportInfoAction action =
+                new GetTransportInfoAction(
+                        UpnpServiceFetcher.getAVTransportService(upnpService),
+                        new UnsignedIntegerFourBytes(999)
+                );
+        try {
+            TestHelper.executeActionAsync(upnpService, action).get();
+            fail("Action with invalid instance id should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ActionFailedException);
+            ActionFailedException failure = (ActionFailedException) e.getCause();
+            assertSame(action, failure.getInvocation());
+            assertNotNull(failure.getResponse());
+        }
+    }
+
     private void checkTransportState(ControlPointUpnpService upnpService,
                                      TransportState state) {
         GetTransportInfoAction action =
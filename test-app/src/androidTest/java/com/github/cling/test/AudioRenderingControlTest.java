@@ -2,6 +2,9 @@ package com.github.cling.test;
 
 import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
 
+import com.github.cling.test.instrument.ActionOutcome;
+import com.github.cling.test.instrument.BatchActionExecutor;
+import com.github.cling.test.instrument.BatchResult;
 import com.github.cling.test.instrument.TestHelper;
 import com.github.cling.test.instrument.UpnpServiceFetcher;
 import com.github.cling.test.instrument.renderingcontrol.GetMuteAction;
@@ -10,12 +13,17 @@ import com.github.cling.test.instrument.renderingcontrol.ListPresetsAction;
 import com.github.cling.test.instrument.renderingcontrol.SetMuteAction;
 import com.github.cling.test.instrument.renderingcontrol.SetVolumeAction;
 
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.meta.RemoteService;
 import org.fourthline.cling.model.types.UnsignedIntegerTwoBytes;
 import org.fourthline.cling.support.model.PresetName;
 import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -25,8 +33,9 @@ import static org.junit.Assert.assertTrue;
 public class AudioRenderingControlTest extends TestBase {
     @After
     public void tearDown() {
-        super.tearDown();
+        // The default renderer goes away with the activity
         ClingLocalRenderer.getLocalRender().setVolume(0);
+        super.tearDown();
     }
 
     @Test
@@ -99,6 +108,42 @@ public class AudioRenderingControlTest extends TestBase {
         assertEquals(new UnsignedIntegerTwoBytes(100), action.getVolume());
     }
 
+    @Test
+    public void testBatchActionExecutorSucceed() throws InterruptedException {
+        ClingLocalRenderer.getLocalRender().setVolume(100);
+        RemoteService service = UpnpServiceFetcher.getAudioRenderingControl(upnpService);
+        List<ActionInvocation<RemoteService>> actions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            actions.add(
+                    new GetVolumeAction(
+                            service,
+                            Utils.getDefaultInstanceId(),
+                            Utils.getChannels()[0].name()
+                    )
+            );
+            actions.add(
+                    new GetMuteAction(
+                            service,
+                            Utils.getDefaultInstanceId(),
+                            Utils.getChannels()[0].name()
+                    )
+            );
+        }
+        BatchResult result = new BatchActionExecutor(upnpService, 4).execute(actions);
+        assertTrue(result.toString(), result.isAllSucceeded());
+        assertEquals(actions.size(), result.getOutcomes().size());
+        for (ActionOutcome outcome : result.getOutcomes()) {
+            if (outcome.getAction() instanceof GetVolumeAction) {
+                assertEquals(
+                        new UnsignedIntegerTwoBytes(100),
+                        ((GetVolumeAction) outcome.getAction()).getVolume()
+                );
+            } else {
+                assertFalse(((GetMuteAction) outcome.getAction()).getMute());
+            }
+        }
+    }
+
     @Test
     public void testSetVolumeSucceed() {
         SetVolumeAction action =
@@ -0,0 +1,113 @@
+package com.github.cling.test;
+
+import android.content.Context;
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.github.cling.test.instrument.CaptureFile;
+import com.github.cling.test.instrument.CaptureRecord;
+import com.github.cling.test.instrument.ControlPointUpnpService;
+import com.github.cling.test.instrument.EventSubscription;
+import com.github.cling.test.instrument.LoadReport;
+import com.github.cling.test.instrument.Replayer;
+import com.github.cling.test.instrument.TestHelper;
+import com.github.cling.test.instrument.UpnpServiceFetcher;
+import com.github.cling.test.instrument.avtransport.SetAVTransportURIAction;
+import com.github.cling.test.instrument.loopback.LoopbackNetwork;
+import com.github.cling.test.instrument.loopback.LoopbackUpnpService;
+import com.github.cling.test.instrument.renderingcontrol.GetVolumeAction;
+
+import org.fourthline.cling.model.meta.RemoteDevice;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4ClassRunner.class)
+public class CaptureReplayTest {
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    private final List<Runnable> shutdowns = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (Runnable shutdown : shutdowns) {
+            shutdown.run();
+        }
+    }
+
+    @Test
+    public void testCaptureAndReplaySucceed() throws IOException, InterruptedException {
+        File file = new File(context.getCacheDir(), "capture.bin");
+        ControlPointUpnpService capturing = startRenderer(new LoopbackNetwork());
+        try (CaptureFile captureFile = CaptureFile.create(file)) {
+            capturing.startCapture(captureFile);
+            EventSubscription subscription =
+                    EventSubscription.subscribe(
+                            capturing,
+                            UpnpServiceFetcher.getAVTransportService(capturing)
+                    );
+            assertNotNull(subscription.awaitEvent(event -> true, TestHelper.MAX_WAIT_MILLIS));
+            TestHelper.executeAction(
+                    capturing,
+                    new SetAVTransportURIAction(
+                            UpnpServiceFetcher.getAVTransportService(capturing),
+                            Utils.getDefaultInstanceId(),
+                            "some-uri",
+                            "some-meta-data"
+                    )
+            );
+            for (int i = 0; i < 5; i++) {
+                TestHelper.executeAction(
+                        capturing,
+                        new GetVolumeAction(
+                                UpnpServiceFetcher.getAudioRenderingControl(capturing),
+                                Utils.getDefaultInstanceId(),
+                                Utils.getChannels()[0].name()
+                        )
+                );
+            }
+            capturing.stopCapture();
+        }
+
+        List<CaptureRecord> records = CaptureFile.read(file);
+        int actionCount = 0;
+        boolean notified = false;
+        for (CaptureRecord record : records) {
+            if (record.isAction()) {
+                actionCount++;
+                assertEquals(200, record.getResponseStatus());
+            }
+            notified |= record.getType() == CaptureRecord.Type.NOTIFICATION;
+        }
+        assertEquals(6, actionCount);
+        assertTrue(notified);
+
+        // Replay on a new network, the renderer has the same UDN
+        ControlPointUpnpService replaying = startRenderer(new LoopbackNetwork());
+        RemoteDevice target = TestHelper.searchRemoteDevice(replaying);
+        LoadReport report = new Replayer(replaying).replay(records, target, 10);
+        assertEquals(report.toString(), 6, report.getSucceededCount());
+        assertEquals(0, report.getErrorCount());
+        assertEquals(5, report.getHistogram("GetVolume").getCount());
+    }
+
+    private ControlPointUpnpService startRenderer(LoopbackNetwork network) {
+        MediaRenderer mediaRenderer = new MediaRenderer(context);
+        LoopbackUpnpService rendererService = new LoopbackUpnpService(network);
+        rendererService.getRegistry().addDevice(mediaRenderer.getDevice());
+        ControlPointUpnpService upnpService = new ControlPointUpnpService(network);
+        shutdowns.add(upnpService::shutdown);
+        shutdowns.add(rendererService::shutdown);
+        shutdowns.add(mediaRenderer::shutdown);
+        return upnpService;
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.cling.test;
+
+import android.content.Context;
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.github.cling.test.instrument.ControlPointUpnpService;
+import com.github.cling.test.instrument.DescriptorCache;
+import com.github.cling.test.instrument.TestHelper;
+import com.github.cling.test.instrument.UpnpServiceFetcher;
+import com.github.cling.test.instrument.loopback.LoopbackNetwork;
+import com.github.cling.test.instrument.loopback.LoopbackUpnpService;
+import com.github.cling.test.instrument.renderingcontrol.GetVolumeAction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4ClassRunner.class)
+public class DescriptorCacheTest {
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    private final File directory = new File(context.getCacheDir(), "descriptors");
+    private LoopbackNetwork network;
+    private MediaRenderer mediaRenderer;
+    private LoopbackUpnpService rendererService;
+
+    @Before
+    public void setUp() {
+        network = new LoopbackNetwork();
+        mediaRenderer = new MediaRenderer(context);
+        rendererService = new LoopbackUpnpService(network);
+        rendererService.getRegistry().addDevice(mediaRenderer.getDevice());
+        new DescriptorCache(directory).clear();
+    }
+
+    @After
+    public void tearDown() {
+        rendererService.shutdown();
+        mediaRenderer.shutdown();
+        new DescriptorCache(directory).clear();
+    }
+
+    @Test
+    public void testRestartedControlPointUseCacheSucceed() {
+        DescriptorCache firstCache = new DescriptorCache(directory);
+        discoverAndGetVolume(firstCache);
+        assertEquals(0, firstCache.getHitCount());
+        assertTrue(firstCache.getMissCount() > 0);
+
+        DescriptorCache secondCache = new DescriptorCache(directory);
+        discoverAndGetVolume(secondCache);
+        assertEquals(firstCache.getMissCount(), secondCache.getHitCount());
+        assertEquals(0, secondCache.getMissCount());
+    }
+
+    private void discoverAndGetVolume(DescriptorCache cache) {
+        ControlPointUpnpService upnpService = new ControlPointUpnpService(network);
+        try {
+            upnpService.enableDescriptorCache(cache);
+            TestHelper.executeAction(
+                    upnpService,
+                    new GetVolumeAction(
+                            UpnpServiceFetcher.getAudioRenderingControl(upnpService),
+                            Utils.getDefaultInstanceId(),
+                            Utils.getChannels()[0].name()
+                    )
+            );
+        } finally {
+            upnpService.shutdown();
+        }
+    }
+}
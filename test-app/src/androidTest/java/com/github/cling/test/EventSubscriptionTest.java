@@ -0,0 +1,126 @@
+package com.github.cling.test;
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
+
+import com.github.cling.test.instrument.EventSubscription;
+import com.github.cling.test.instrument.ServiceEvent;
+import com.github.cling.test.instrument.TestHelper;
+import com.github.cling.test.instrument.UpnpServiceFetcher;
+import com.github.cling.test.instrument.avtransport.SetAVTransportURIAction;
+
+import org.fourthline.cling.support.avtransport.lastchange.AVTransportVariable;
+import org.fourthline.cling.support.model.TransportState;
+import org.fourthline.cling.support.renderingcontrol.lastchange.ChannelVolume;
+import org.fourthline.cling.support.renderingcontrol.lastchange.RenderingControlVariable;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4ClassRunner.class)
+public class EventSubscriptionTest extends TestBase {
+    @After
+    public void tearDown() {
+        // The default renderer goes away with the activity
+        ClingLocalRenderer.getLocalRender().setVolume(0);
+        super.tearDown();
+    }
+
+    @Test
+    public void testAVTransportInitialEventSucceed() throws InterruptedException {
+        EventSubscription subscription =
+                EventSubscription.subscribe(
+                        upnpService,
+                        UpnpServiceFetcher.getAVTransportService(upnpService)
+                );
+        ServiceEvent event =
+                subscription.awaitEvent(
+                        e -> e.getValue(
+                                Utils.getDefaultInstanceId(),
+                                AVTransportVariable.TransportState.class
+                        ) != null,
+                        TestHelper.MAX_WAIT_MILLIS
+                );
+        assertNotNull(event);
+        assertEquals(0, event.getSequence());
+        TransportState transportState =
+                event.getValue(
+                        Utils.getDefaultInstanceId(),
+                        AVTransportVariable.TransportState.class
+                );
+        assertNotNull(transportState);
+    }
+
+    @Test
+    public void testRenderingControlInitialEventSucceed() throws InterruptedException {
+        ClingLocalRenderer.getLocalRender().setVolume(30);
+        EventSubscription subscription =
+                EventSubscription.subscribe(
+                        upnpService,
+                        UpnpServiceFetcher.getAudioRenderingControl(upnpService)
+                );
+        ServiceEvent event =
+                subscription.awaitEvent(
+                        e -> e.getValue(
+                                Utils.getDefaultInstanceId(),
+                                RenderingControlVariable.Volume.class
+                        ) != null,
+                        TestHelper.MAX_WAIT_MILLIS
+                );
+        assertNotNull(event);
+        ChannelVolume volume =
+                event.getValue(
+                        Utils.getDefaultInstanceId(),
+                        RenderingControlVariable.Volume.class
+                );
+        assertEquals(30, volume.getVolume().intValue());
+    }
+
+    @Test
+    public void testTransportStateChangeEventedSucceed() throws InterruptedException {
+        EventSubscription subscription =
+                EventSubscription.subscribe(
+                        upnpService,
+                        UpnpServiceFetcher.getAVTransportService(upnpService)
+                );
+        assertTrue(subscription.awaitEstablished(TestHelper.MAX_WAIT_MILLIS));
+        TestHelper.executeAction(
+                upnpService,
+                new SetAVTransportURIAction(
+                        UpnpServiceFetcher.getAVTransportService(upnpService),
+                        Utils.getDefaultInstanceId(),
+                        "some-uri",
+                        "some-meta-data"
+                )
+        );
+        // The changes within one moderation interval are pushed as one event
+        ClingLocalRenderer.getControlPoint().start();
+        ClingLocalRenderer.getControlPoint().pause();
+        ClingLocalRenderer.getControlPoint().start();
+        ServiceEvent event =
+                subscription.awaitEvent(
+                        e -> e.getValue(
+                                Utils.getDefaultInstanceId(),
+                                AVTransportVariable.TransportState.class
+                        ) == TransportState.PLAYING,
+                        TestHelper.MAX_WAIT_MILLIS
+                );
+        assertNotNull(event);
+        assertTrue(event.getSequence() > 0);
+    }
+
+    @Test
+    public void testEndSubscriptionSucceed() throws InterruptedException {
+        EventSubscription subscription =
+                EventSubscription.subscribe(
+                        upnpService,
+                        UpnpServiceFetcher.getAVTransportService(upnpService)
+                );
+        assertTrue(subscription.awaitEstablished(TestHelper.MAX_WAIT_MILLIS));
+        subscription.end();
+        assertTrue(subscription.isEnded());
+    }
+}
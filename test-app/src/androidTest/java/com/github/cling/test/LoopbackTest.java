@@ -0,0 +1,153 @@
+package com.github.cling.test;
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.github.cling.test.instrument.ControlPointUpnpService;
+import com.github.cling.test.instrument.SearchTarget;
+import com.github.cling.test.instrument.TestHelper;
+import com.github.cling.test.instrument.UpnpServiceFetcher;
+import com.github.cling.test.instrument.connectionmanager.GetProtocolInfoAction;
+import com.github.cling.test.instrument.loopback.LoopbackNetwork;
+import com.github.cling.test.instrument.loopback.LoopbackUpnpService;
+import com.github.cling.test.instrument.renderingcontrol.GetVolumeAction;
+
+import org.fourthline.cling.model.meta.RemoteDevice;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.model.types.UDN;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4ClassRunner.class)
+public class LoopbackTest {
+    private LoopbackNetwork network;
+    private MediaRenderer mediaRenderer;
+    private LoopbackUpnpService rendererService;
+    private ControlPointUpnpService upnpService;
+
+    @Before
+    public void setUp() {
+        network = new LoopbackNetwork();
+        rendererService = new LoopbackUpnpService(network);
+        mediaRenderer =
+                new MediaRenderer(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        rendererService.getRegistry().addDevice(mediaRenderer.getDevice());
+        upnpService = new ControlPointUpnpService(network);
+    }
+
+    @After
+    public void tearDown() {
+        upnpService.shutdown();
+        rendererService.shutdown();
+        mediaRenderer.shutdown();
+    }
+
+    @Test
+    public void testSearchRemoteDeviceOnLoopbackSucceed() {
+        RemoteDevice remoteDevice = TestHelper.searchRemoteDevice(upnpService);
+        assertEquals(Utils.uniqueSystemIdentifier(), remoteDevice.getIdentity().getUdn());
+        assertEquals(0, upnpService.getStreamServerThreadCount());
+    }
+
+    @Test
+    public void testExecuteActionOnLoopbackSucceed() {
+        mediaRenderer.getLocalRender(Utils.getDefaultInstanceId()).setVolume(30);
+        GetVolumeAction action =
+                new GetVolumeAction(
+                        UpnpServiceFetcher.getAudioRenderingControl(upnpService),
+                        Utils.getDefaultInstanceId(),
+                        Utils.getChannels()[0].name()
+                );
+        TestHelper.executeAction(upnpService, action);
+        assertEquals(30, action.getVolume().getValue().longValue());
+        mediaRenderer.getLocalRender(Utils.getDefaultInstanceId()).setVolume(0);
+
+        GetProtocolInfoAction protocolInfoAction =
+                new GetProtocolInfoAction(
+                        UpnpServiceFetcher.getConnectionManagerService(upnpService)
+                );
+        TestHelper.executeAction(upnpService, protocolInfoAction);
+        assertFalse(protocolInfoAction.getSinkProtocolInfo().isEmpty());
+        assertTrue(network.getStreamRequestCount() > 0);
+    }
+
+    @Test
+    public void testResolveCachedRemoteServiceSucceed() {
+        RemoteService service = UpnpServiceFetcher.getAVTransportService(upnpService);
+        assertSame(service, UpnpServiceFetcher.getAVTransportService(upnpService));
+
+        // Removing the device drops its cached services, so they are resolved from the device
+        // found by the next search
+        upnpService.getRegistry().removeDevice(TestHelper.searchRemoteDevice(upnpService));
+        TestHelper.waitState(
+                () -> SearchTarget.mediaRenderer().find(upnpService) == null,
+                TestHelper.MAX_WAIT_MILLIS
+        );
+        assertNull(SearchTarget.mediaRenderer().find(upnpService));
+        RemoteService resolvedAgain = UpnpServiceFetcher.getAVTransportService(upnpService);
+        assertNotSame(service, resolvedAgain);
+        assertEquals(service.getServiceId(), resolvedAgain.getServiceId());
+        assertSame(resolvedAgain, UpnpServiceFetcher.getAVTransportService(upnpService));
+    }
+
+    @Test
+    public void testSearchRendererByUDNSucceed() {
+        MediaRenderer otherRenderer =
+                new MediaRenderer(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                        "other",
+                        1,
+                        0
+                );
+        LoopbackUpnpService otherService = new LoopbackUpnpService(network);
+        try {
+            otherService.getRegistry().addDevice(otherRenderer.getDevice());
+            UDN otherUdn = Utils.uniqueSystemIdentifier("other");
+            assertNotEquals(Utils.uniqueSystemIdentifier(), otherUdn);
+            assertEquals(otherUdn, Utils.uniqueSystemIdentifier("other"));
+
+            RemoteService defaultService =
+                    UpnpServiceFetcher.getAVTransportService(
+                            upnpService,
+                            Utils.uniqueSystemIdentifier()
+                    );
+            RemoteService otherAVTransport =
+                    UpnpServiceFetcher.getAVTransportService(upnpService, otherUdn);
+            assertEquals(otherUdn, otherAVTransport.getDevice().getIdentity().getUdn());
+            assertNotEquals(
+                    defaultService.getDevice().getIdentity().getUdn(),
+                    otherAVTransport.getDevice().getIdentity().getUdn()
+            );
+
+            // Each renderer has its own local render state
+            mediaRenderer.getLocalRender(Utils.getDefaultInstanceId()).setVolume(10);
+            otherRenderer.getLocalRender(Utils.getDefaultInstanceId()).setVolume(20);
+            assertEquals(10, getVolume(Utils.uniqueSystemIdentifier()));
+            assertEquals(20, getVolume(otherUdn));
+        } finally {
+            otherService.shutdown();
+            otherRenderer.shutdown();
+        }
+    }
+
+    private long getVolume(UDN udn) {
+        GetVolumeAction action =
+                new GetVolumeAction(
+                        UpnpServiceFetcher.getAudioRenderingControl(upnpService, udn),
+                        Utils.getDefaultInstanceId(),
+                        Utils.getChannels()[0].name()
+                );
+        TestHelper.executeAction(upnpService, action);
+        return action.getVolume().getValue();
+    }
+}
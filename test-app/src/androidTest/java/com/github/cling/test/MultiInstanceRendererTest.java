@@ -0,0 +1,107 @@
+package com.github.cling.test;
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.github.cling.test.instrument.BatchActionExecutor;
+import com.github.cling.test.instrument.BatchResult;
+import com.github.cling.test.instrument.ControlPointUpnpService;
+import com.github.cling.test.instrument.TestHelper;
+import com.github.cling.test.instrument.UpnpServiceFetcher;
+import com.github.cling.test.instrument.avtransport.GetTransportInfoAction;
+import com.github.cling.test.instrument.avtransport.SetAVTransportURIAction;
+import com.github.cling.test.instrument.loopback.LoopbackNetwork;
+import com.github.cling.test.instrument.loopback.LoopbackUpnpService;
+import com.github.cling.test.instrument.renderingcontrol.SetVolumeAction;
+
+import org.fourthline.cling.model.action.ActionInvocation;
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.model.types.UnsignedIntegerFourBytes;
+import org.fourthline.cling.model.types.UnsignedIntegerTwoBytes;
+import org.fourthline.cling.support.model.TransportState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4ClassRunner.class)
+public class MultiInstanceRendererTest {
+    private static final int INSTANCE_COUNT = 4;
+
+    private MediaRenderer mediaRenderer;
+    private LoopbackUpnpService rendererService;
+    private ControlPointUpnpService upnpService;
+
+    @Before
+    public void setUp() {
+        LoopbackNetwork network = new LoopbackNetwork();
+        mediaRenderer =
+                new MediaRenderer(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                        INSTANCE_COUNT,
+                        MediaRenderer.DEFAULT_LAST_CHANGE_INTERVAL_MILLIS
+                );
+        rendererService = new LoopbackUpnpService(network);
+        rendererService.getRegistry().addDevice(mediaRenderer.getDevice());
+        upnpService = new ControlPointUpnpService(network);
+    }
+
+    @After
+    public void tearDown() {
+        upnpService.shutdown();
+        rendererService.shutdown();
+        mediaRenderer.shutdown();
+    }
+
+    @Test
+    public void testSetVolumeOfEveryInstanceSucceed() throws InterruptedException {
+        RemoteService service = UpnpServiceFetcher.getAudioRenderingControl(upnpService);
+        UnsignedIntegerFourBytes[] instanceIds = Utils.getInstanceIds(INSTANCE_COUNT);
+        List<ActionInvocation<RemoteService>> actions = new ArrayList<>();
+        for (int i = 0; i < instanceIds.length; i++) {
+            actions.add(
+                    new SetVolumeAction(
+                            service,
+                            instanceIds[i],
+                            Utils.getChannels()[0].name(),
+                            new UnsignedIntegerTwoBytes(10 + i)
+                    )
+            );
+        }
+        BatchResult result = new BatchActionExecutor(upnpService, INSTANCE_COUNT).execute(actions);
+        assertTrue(result.toString(), result.isAllSucceeded());
+        for (int i = 0; i < instanceIds.length; i++) {
+            assertEquals(10 + i, mediaRenderer.getLocalRender(instanceIds[i]).getVolume());
+        }
+    }
+
+    @Test
+    public void testTransportStateOfInstancesIsIndependent() {
+        RemoteService service = UpnpServiceFetcher.getAVTransportService(upnpService);
+        UnsignedIntegerFourBytes[] instanceIds = Utils.getInstanceIds(INSTANCE_COUNT);
+        TestHelper.executeAction(
+                upnpService,
+                new SetAVTransportURIAction(service, instanceIds[1], "some-uri", "")
+        );
+        mediaRenderer.getControlPoint(instanceIds[1]).start();
+
+        GetTransportInfoAction playing = new GetTransportInfoAction(service, instanceIds[1]);
+        TestHelper.executeAction(upnpService, playing);
+        assertEquals(
+                TransportState.PLAYING,
+                playing.getTransportInfo().getCurrentTransportState()
+        );
+        GetTransportInfoAction idle = new GetTransportInfoAction(service, instanceIds[2]);
+        TestHelper.executeAction(upnpService, idle);
+        assertEquals(
+                TransportState.NO_MEDIA_PRESENT,
+                idle.getTransportInfo().getCurrentTransportState()
+        );
+    }
+}
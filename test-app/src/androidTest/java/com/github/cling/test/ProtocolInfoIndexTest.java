@@ -0,0 +1,59 @@
+package com.github.cling.test;
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
+
+import org.fourthline.cling.support.model.ProtocolInfo;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4ClassRunner.class)
+public class ProtocolInfoIndexTest {
+    private static final ProtocolInfo MP4_PROFILE =
+            new ProtocolInfo("http-get:*:video/mp4:DLNA.ORG_PN=AVC_MP4_BL_CIF15_AAC_520");
+    private static final ProtocolInfo ANY_AUDIO = new ProtocolInfo("http-get:*:audio/*:*");
+
+    private final ProtocolInfoIndex index =
+            new ProtocolInfoIndex(Arrays.asList(MP4_PROFILE, ANY_AUDIO));
+
+    @Test
+    public void testSinkProtocolInfoIndexSucceed() {
+        ProtocolInfoIndex sinkIndex = Utils.getSinkProtocolInfoIndex();
+        assertSame(sinkIndex, Utils.getSinkProtocolInfoIndex());
+        assertEquals(Utils.generateSinkProtocolInfoList(), sinkIndex.getProtocolInfos());
+        assertTrue(sinkIndex.supportsContentFormat("video/x-matroska"));
+        assertFalse(sinkIndex.supportsContentFormat("text/plain"));
+    }
+
+    @Test
+    public void testCompatibleProfileSucceed() {
+        ProtocolInfo source =
+                new ProtocolInfo("http-get:*:video/mp4:DLNA.ORG_PN=AVC_MP4_BL_CIF15_AAC_520;"
+                        + "DLNA.ORG_OP=01");
+        assertSame(MP4_PROFILE, index.findCompatible(source));
+        assertEquals(1, index.getByProfile("AVC_MP4_BL_CIF15_AAC_520").size());
+    }
+
+    @Test
+    public void testIncompatibleProfileFailed() {
+        ProtocolInfo source =
+                new ProtocolInfo("http-get:*:video/mp4:DLNA.ORG_PN=AVC_MP4_HP_HD_AAC");
+        assertFalse(index.isCompatible(source));
+    }
+
+    @Test
+    public void testWildcardContentFormatSucceed() {
+        assertSame(ANY_AUDIO, index.findCompatible(new ProtocolInfo("http-get:*:audio/flac:*")));
+    }
+
+    @Test
+    public void testIncompatibleProtocolFailed() {
+        assertFalse(index.isCompatible(new ProtocolInfo("rtsp-rtp-udp:*:audio/mpeg:*")));
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.cling.test;
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
+
+import com.github.cling.test.instrument.LoadGenerator;
+import com.github.cling.test.instrument.LoadMix;
+import com.github.cling.test.instrument.LoadReport;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4ClassRunner.class)
+public class RendererLoadTest extends TestBase {
+    private static final long DURATION_MILLIS = 3000;
+
+    @Test
+    public void testClosedLoopLoadSucceed() throws InterruptedException {
+        LoadGenerator generator =
+                new LoadGenerator(
+                        upnpService,
+                        LoadMix.readOnly(upnpService, Utils.getDefaultInstanceId())
+                );
+        LoadReport report = generator.runClosedLoop(4, DURATION_MILLIS);
+        assertEquals(0, report.getErrorCount());
+        assertTrue(report.getSucceededCount() > 0);
+        assertTrue(report.getThroughput() > 0);
+    }
+
+    @Test
+    public void testOpenLoopLoadSucceed() throws InterruptedException {
+        LoadGenerator generator =
+                new LoadGenerator(
+                        upnpService,
+                        LoadMix.readOnly(upnpService, Utils.getDefaultInstanceId())
+                );
+        LoadReport report = generator.runOpenLoop(20, DURATION_MILLIS);
+        assertEquals(0, report.getErrorCount());
+        // 20 actions per second for 3 seconds.
+        assertEquals(60, report.getSucceededCount());
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.cling.test;
+
+import android.util.Log;
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.github.cling.test.instrument.ControlPointUpnpService;
+import com.github.cling.test.instrument.LoadMix;
+import com.github.cling.test.instrument.LoadReport;
+import com.github.cling.test.instrument.StressRunner;
+import com.github.cling.test.instrument.loopback.LoopbackNetwork;
+import com.github.cling.test.instrument.loopback.LoopbackUpnpService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4ClassRunner.class)
+public class RendererStressTest {
+    private static final String TAG = "RendererStressTest";
+    private static final int CONTROL_POINT_COUNT = 3;
+    private static final int THREADS_PER_CONTROL_POINT = 4;
+    private static final long DURATION_MILLIS = 3000;
+    private static final long PROBE_INTERVAL_MILLIS = 100;
+
+    private MediaRenderer mediaRenderer;
+    private LoopbackUpnpService rendererService;
+    private final List<ControlPointUpnpService> controlPoints = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        LoopbackNetwork network = new LoopbackNetwork();
+        mediaRenderer =
+                new MediaRenderer(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        rendererService = new LoopbackUpnpService(network);
+        rendererService.getRegistry().addDevice(mediaRenderer.getDevice());
+        for (int i = 0; i < CONTROL_POINT_COUNT; i++) {
+            controlPoints.add(new ControlPointUpnpService(network));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (ControlPointUpnpService controlPoint : controlPoints) {
+            controlPoint.shutdown();
+        }
+        rendererService.shutdown();
+        mediaRenderer.shutdown();
+    }
+
+    @Test
+    public void testConcurrentReadWriteSucceed() throws InterruptedException {
+        StressRunner runner =
+                new StressRunner(
+                        controlPoints,
+                        controlPoint -> LoadMix.readWrite(
+                                controlPoint,
+                                Utils.getDefaultInstanceId()
+                        ),
+                        THREADS_PER_CONTROL_POINT
+                )
+                        .addInvariant("LastChange", () -> {
+                            List<String> violations = mediaRenderer.checkConsistency();
+                            return violations.isEmpty() ? null : violations.toString();
+                        });
+        LoadReport report = runner.run(DURATION_MILLIS, PROBE_INTERVAL_MILLIS);
+        Log.i(TAG, "Write lock " + mediaRenderer.getWriteLockStats());
+        assertTrue(runner.getViolations().toString(), runner.isConsistent());
+        assertEquals(0, report.getErrorCount());
+        assertTrue(report.getHistogram("SetVolume").getCount() > 0);
+        assertTrue(mediaRenderer.getWriteLockStats().getAcquireCount() > 0);
+    }
+}
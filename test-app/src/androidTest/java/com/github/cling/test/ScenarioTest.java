@@ -0,0 +1,102 @@
+package com.github.cling.test;
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
+
+import com.github.cling.test.instrument.Scenario;
+import com.github.cling.test.instrument.ScenarioResult;
+import com.github.cling.test.instrument.StepRecord;
+import com.github.cling.test.instrument.UpnpServiceFetcher;
+import com.github.cling.test.instrument.avtransport.GetTransportInfoAction;
+import com.github.cling.test.instrument.avtransport.SetAVTransportURIAction;
+import com.github.cling.test.instrument.renderingcontrol.GetVolumeAction;
+
+import org.fourthline.cling.model.meta.RemoteService;
+import org.fourthline.cling.support.model.TransportState;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4ClassRunner.class)
+public class ScenarioTest extends TestBase {
+    @Test
+    public void testPlaybackSessionSucceed() throws InterruptedException {
+        RemoteService avTransport = UpnpServiceFetcher.getAVTransportService(upnpService);
+        RemoteService renderingControl = UpnpServiceFetcher.getAudioRenderingControl(upnpService);
+        ScenarioResult result =
+                new Scenario(upnpService)
+                        .action(
+                                "setURI",
+                                () -> new SetAVTransportURIAction(
+                                        avTransport,
+                                        Utils.getDefaultInstanceId(),
+                                        "some-uri",
+                                        "some-meta-data"
+                                )
+                        )
+                        // Independent of the playback, overlaps with it
+                        .action(
+                                "getVolume",
+                                () -> new GetVolumeAction(
+                                        renderingControl,
+                                        Utils.getDefaultInstanceId(),
+                                        Utils.getChannels()[0].name()
+                                )
+                        )
+                        .stimulus(
+                                "start",
+                                () -> ClingLocalRenderer.getControlPoint().start(),
+                                "setURI"
+                        )
+                        .action(
+                                "checkPlaying",
+                                () -> new GetTransportInfoAction(
+                                        avTransport,
+                                        Utils.getDefaultInstanceId()
+                                ),
+                                action -> action.getTransportInfo().getCurrentTransportState()
+                                        == TransportState.PLAYING,
+                                "start"
+                        )
+                        .stimulus(
+                                "pause",
+                                () -> ClingLocalRenderer.getControlPoint().pause(),
+                                "checkPlaying"
+                        )
+                        .action(
+                                "checkPaused",
+                                () -> new GetTransportInfoAction(
+                                        avTransport,
+                                        Utils.getDefaultInstanceId()
+                                ),
+                                action -> action.getTransportInfo().getCurrentTransportState()
+                                        == TransportState.PAUSED_PLAYBACK,
+                                "pause"
+                        )
+                        .run();
+        assertTrue(result.toString(), result.isAllSucceeded());
+        assertEquals(6, result.getSteps().size());
+        assertTrue(
+                result.getStep("checkPlaying").getStartNanos()
+                        >= result.getStep("start").getEndNanos()
+        );
+    }
+
+    @Test
+    public void testSkipStepsAfterFailureSucceed() throws InterruptedException {
+        ScenarioResult result =
+                new Scenario(upnpService, 100)
+                        .awaitState("never", () -> false)
+                        .stimulus("afterNever", () -> {
+                        }, "never")
+                        .stimulus("independent", () -> {
+                        })
+                        .run();
+        assertFalse(result.isAllSucceeded());
+        assertEquals(StepRecord.Status.FAILED, result.getStep("never").getStatus());
+        assertEquals(StepRecord.Status.SKIPPED, result.getStep("afterNever").getStatus());
+        assertEquals(StepRecord.Status.SUCCEEDED, result.getStep("independent").getStatus());
+    }
+}
@@ -3,8 +3,10 @@ package com.github.cling.test;
 import androidx.test.ext.junit.rules.ActivityScenarioRule;
 
 import com.github.cling.test.instrument.ControlPointUpnpService;
+import com.github.cling.test.instrument.SharedControlPoint;
 
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Rule;
 
@@ -22,12 +24,17 @@ public class TestBase {
     @Before
     public void setUp() {
         Logger.getLogger("org.fourthline.cling").setLevel(Level.FINEST);
-        upnpService = new ControlPointUpnpService();
+        upnpService = SharedControlPoint.acquire();
     }
 
     @After
     public void tearDown() {
         getScenario(devicesActivityRule).close();
-        upnpService.shutdown();
+        SharedControlPoint.reset();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        SharedControlPoint.release();
     }
 }
@@ -2,6 +2,8 @@ package com.github.cling.test;
 
 import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
 
+import com.github.cling.test.instrument.SearchTarget;
+import com.github.cling.test.instrument.StreamServerSettings;
 import com.github.cling.test.instrument.TestHelper;
 
 import org.fourthline.cling.model.meta.DeviceDetails;
@@ -9,12 +11,15 @@ import org.fourthline.cling.model.meta.ModelDetails;
 import org.fourthline.cling.model.meta.RemoteDevice;
 import org.fourthline.cling.model.types.DLNADoc;
 import org.fourthline.cling.model.types.UDADeviceType;
+import org.fourthline.cling.model.types.UDAServiceType;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(AndroidJUnit4ClassRunner.class)
 public class UpnpSearchTest extends TestBase {
@@ -41,4 +46,40 @@ public class UpnpSearchTest extends TestBase {
         assertEquals("DMR", doc.getDevClass());
         assertEquals(DLNADoc.Version.V1_5.toString(), doc.getVersion());
     }
+
+    @Test
+    public void testSearchRemoteDeviceByUDNSucceed() {
+        RemoteDevice remoteDevice =
+                TestHelper.searchRemoteDevice(
+                        upnpService,
+                        SearchTarget.udn(Utils.uniqueSystemIdentifier())
+                );
+        assertNotNull(remoteDevice);
+        assertEquals(Utils.uniqueSystemIdentifier(), remoteDevice.getIdentity().getUdn());
+    }
+
+    @Test
+    public void testSearchRemoteDeviceByServiceTypeSucceed() {
+        RemoteDevice remoteDevice =
+                TestHelper.searchRemoteDevice(
+                        upnpService,
+                        SearchTarget.serviceType(new UDAServiceType("AVTransport", 1))
+                );
+        assertNotNull(remoteDevice);
+        assertNotNull(remoteDevice.findService(new UDAServiceType("AVTransport", 1)));
+        assertSame(
+                remoteDevice,
+                TestHelper.searchRemoteDevice(upnpService, SearchTarget.mediaRenderer())
+        );
+    }
+
+    @Test
+    public void testStreamServerThreadCountBounded() {
+        assertNotNull(TestHelper.searchRemoteDevice(upnpService));
+        int threadCount = upnpService.getStreamServerThreadCount();
+        assertTrue(
+                "Unexpected thread count " + threadCount,
+                threadCount <= StreamServerSettings.DEFAULT_MAX_THREADS
+        );
+    }
 }
@@ -17,6 +17,12 @@ import org.fourthline.cling.support.model.TransportSettings;
 import java.util.Map;
 
 public class AVTransportService extends AbstractAVTransportService {
+    // The renderer doesn't change them, so every request is answered with the same instances
+    private static final DeviceCapabilities DEVICE_CAPABILITIES =
+            new DeviceCapabilities(new StorageMedium[]{StorageMedium.NETWORK});
+    private static final TransportSettings TRANSPORT_SETTINGS =
+            new TransportSettings(PlayMode.NORMAL);
+
     final private Map<UnsignedIntegerFourBytes, MediaPlayer> players;
 
     AVTransportService(LastChange lastChange,
@@ -65,12 +71,12 @@ public class AVTransportService extends AbstractAVTransportService {
 
     @Override
     public DeviceCapabilities getDeviceCapabilities(UnsignedIntegerFourBytes instanceId) {
-        return new DeviceCapabilities(new StorageMedium[]{StorageMedium.NETWORK});
+        return DEVICE_CAPABILITIES;
     }
 
     @Override
     public TransportSettings getTransportSettings(UnsignedIntegerFourBytes instanceId) {
-        return new TransportSettings(PlayMode.NORMAL);
+        return TRANSPORT_SETTINGS;
     }
 
     @Override
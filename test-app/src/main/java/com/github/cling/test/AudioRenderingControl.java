@@ -68,8 +68,12 @@ public class AudioRenderingControl extends AbstractAudioRenderingControl {
 
     @Override
     public UnsignedIntegerFourBytes[] getCurrentInstanceIds() {
-        UnsignedIntegerFourBytes[] ids = new UnsignedIntegerFourBytes[1];
-        ids[0] = Utils.getDefaultInstanceId();
+        UnsignedIntegerFourBytes[] ids = new UnsignedIntegerFourBytes[getPlayers().size()];
+        int i = 0;
+        for (UnsignedIntegerFourBytes id : getPlayers().keySet()) {
+            ids[i] = id;
+            i++;
+        }
         return ids;
     }
 }
\ No newline at end of file
@@ -1,29 +1,81 @@
 package com.github.cling.test;
 
+import org.fourthline.cling.model.types.UnsignedIntegerFourBytes;
+
+import java.util.function.Supplier;
+
+/**
+ * Local render state and control point hooks of the default renderer, the one hosted by
+ * {@link DevicesActivity}.
+ * <p>
+ * Every {@link MediaRenderer} owns the state of its player instances, renderers created
+ * elsewhere are accessed through {@link MediaRenderer#getLocalRender} and
+ * {@link MediaRenderer#getControlPoint}. The methods without instance ID access the default
+ * instance.
+ */
 public class ClingLocalRenderer {
-    private static final ILocalRender localRender = new ILocalRenderImpl();
-    private static IControlPoint controlPoint;
+    private static volatile MediaRenderer defaultRenderer;
+
+    static synchronized void setDefaultRenderer(MediaRenderer renderer) {
+        defaultRenderer = renderer;
+    }
+
+    /**
+     * Forget the default renderer, unless another one has replaced it meanwhile.
+     */
+    static synchronized void clearDefaultRenderer(MediaRenderer renderer) {
+        if (defaultRenderer == renderer) {
+            defaultRenderer = null;
+        }
+    }
 
     public static void setControlPoint(IControlPoint controlPoint) {
-        ClingLocalRenderer.controlPoint = controlPoint;
+        setControlPoint(Utils.getDefaultInstanceId(), controlPoint);
+    }
+
+    public static void setControlPoint(UnsignedIntegerFourBytes instanceId,
+                                       IControlPoint controlPoint) {
+        getDefaultRenderer().setControlPoint(instanceId, controlPoint);
     }
 
     public static IControlPoint getControlPoint() {
-        return controlPoint;
+        return getControlPoint(Utils.getDefaultInstanceId());
+    }
+
+    public static IControlPoint getControlPoint(UnsignedIntegerFourBytes instanceId) {
+        return getDefaultRenderer().getControlPoint(instanceId);
     }
 
     public static ILocalRender getLocalRender() {
-        return localRender;
+        return getLocalRender(Utils.getDefaultInstanceId());
+    }
+
+    public static ILocalRender getLocalRender(UnsignedIntegerFourBytes instanceId) {
+        return getDefaultRenderer().getLocalRender(instanceId);
+    }
+
+    private static MediaRenderer getDefaultRenderer() {
+        MediaRenderer renderer = defaultRenderer;
+        if (renderer == null) {
+            throw new IllegalStateException("No default renderer, DevicesActivity isn't created");
+        }
+        return renderer;
     }
 
-    private static final class ILocalRenderImpl implements ILocalRender {
-        private String playURI;
-        private int volume;
-        private String uriMetaData;
-        private String nextPlayURI;
-        private String nextURIMetaData;
-        private String seekUnit;
-        private String seekTarget;
+    static final class ILocalRenderImpl implements ILocalRender {
+        private final Supplier<IControlPoint> controlPoint;
+        // Written by the player and read by SOAP handlers and tests without locking
+        private volatile String playURI;
+        private volatile int volume;
+        private volatile String uriMetaData;
+        private volatile String nextPlayURI;
+        private volatile String nextURIMetaData;
+        private volatile String seekUnit;
+        private volatile String seekTarget;
+
+        ILocalRenderImpl(Supplier<IControlPoint> controlPoint) {
+            this.controlPoint = controlPoint;
+        }
 
         @Override
         public void setPlayURI(String playURI) {
@@ -42,17 +94,17 @@ public class ClingLocalRenderer {
 
         @Override
         public void play() {
-            getControlPoint().start();
+            controlPoint.get().start();
         }
 
         @Override
         public void pause() {
-            getControlPoint().pause();
+            controlPoint.get().pause();
         }
 
         @Override
         public void stop() {
-            getControlPoint().stop();
+            controlPoint.get().stop();
         }
 
         @Override
@@ -16,6 +16,7 @@ import org.fourthline.cling.android.AndroidUpnpServiceImpl;
 public class DevicesActivity extends AppCompatActivity {
     private static final String TAG = "DevicesActivity";
     private AndroidUpnpService upnpService;
+    private MediaRenderer mediaRenderer;
     private boolean hasConnected = false;
 
     private ServiceConnection serviceConnection = new ServiceConnection() {
@@ -23,7 +24,6 @@ public class DevicesActivity extends AppCompatActivity {
         public void onServiceConnected(ComponentName className, IBinder service) {
             upnpService = (AndroidUpnpService) service;
 
-            MediaRenderer mediaRenderer = new MediaRenderer(DevicesActivity.this);
             upnpService.getRegistry().addDevice(mediaRenderer.getDevice());
             Log.i(TAG, "Add upnp device " + mediaRenderer.getDevice());
 
@@ -45,6 +45,10 @@ public class DevicesActivity extends AppCompatActivity {
 
         setContentView(R.layout.devices);
 
+        // Created before binding, so tests can drive the renderer as soon as the activity runs
+        mediaRenderer = new MediaRenderer(getApplicationContext());
+        ClingLocalRenderer.setDefaultRenderer(mediaRenderer);
+
         getApplicationContext()
                 .bindService(
                         new Intent(this, AndroidUpnpServiceImpl.class),
@@ -56,6 +60,10 @@ public class DevicesActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (mediaRenderer != null) {
+            ClingLocalRenderer.clearDefaultRenderer(mediaRenderer);
+            mediaRenderer.shutdown();
+        }
         getApplicationContext().unbindService(serviceConnection);
     }
 
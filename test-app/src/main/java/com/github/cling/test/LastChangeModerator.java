@@ -0,0 +1,74 @@
+package com.github.cling.test;
+
+import android.util.Log;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Flush LastChange automatically, at most once per moderation interval.
+ * <p>
+ * LastChange merges values set between two flushes, so all changes within an interval are
+ * coalesced into one event, and subscribers aren't flooded when position or volume change at
+ * high frequency. UPnP recommends to moderate LastChange at 5 Hz, which is the default.
+ */
+class LastChangeModerator {
+    static final long DEFAULT_INTERVAL_MILLIS = 200;
+
+    private static final String TAG = "LastChangeModerator";
+
+    private final Runnable flushAction;
+    private final long intervalNanos;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "LastChangeModerator");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile long lastFlushNanos;
+
+    LastChangeModerator(Runnable flushAction, long intervalMillis) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("interval must not be negative: " + intervalMillis);
+        }
+        this.flushAction = flushAction;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.lastFlushNanos = System.nanoTime() - intervalNanos;
+    }
+
+    /**
+     * Request a flush after a value has changed. The first change after a quiet period is
+     * flushed immediately, later changes wait for the end of the interval.
+     */
+    void requestFlush() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long delayNanos = Math.max(0, lastFlushNanos + intervalNanos - System.nanoTime());
+        try {
+            scheduler.schedule(this::flush, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // Already shut down
+            scheduled.set(false);
+        }
+    }
+
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void flush() {
+        // Clear the flag first, so a change during the flush schedules the next one
+        scheduled.set(false);
+        lastFlushNanos = System.nanoTime();
+        try {
+            flushAction.run();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to flush LastChange", e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.cling.test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wait time statistics of locks, to see how much concurrent callers block each other.
+ * <p>
+ * An uncontended acquisition only costs a counter increment, the wait is only timed when the
+ * lock is held by another thread.
+ */
+public final class LockStats {
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder contendedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    void lock(ReentrantLock lock) {
+        acquireCount.increment();
+        if (lock.tryLock()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        lock.lock();
+        long waitNanos = System.nanoTime() - startNanos;
+        contendedCount.increment();
+        totalWaitNanos.add(waitNanos);
+        long currentMax = maxWaitNanos.get();
+        while (waitNanos > currentMax && !maxWaitNanos.compareAndSet(currentMax, waitNanos)) {
+            currentMax = maxWaitNanos.get();
+        }
+    }
+
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    /**
+     * Get the number of acquisitions which had to wait for another thread.
+     */
+    public long getContendedCount() {
+        return contendedCount.sum();
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    public void reset() {
+        acquireCount.reset();
+        contendedCount.reset();
+        totalWaitNanos.reset();
+        maxWaitNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "LockStats{"
+                + "acquired=" + getAcquireCount()
+                + ", contended=" + getContendedCount()
+                + ", totalWaitMillis=" + TimeUnit.NANOSECONDS.toMillis(getTotalWaitNanos())
+                + ", maxWaitMicros=" + TimeUnit.NANOSECONDS.toMicros(getMaxWaitNanos())
+                + "}";
+    }
+}
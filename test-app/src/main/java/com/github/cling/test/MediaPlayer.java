@@ -15,30 +15,68 @@ import org.fourthline.cling.support.renderingcontrol.lastchange.ChannelMute;
 import org.fourthline.cling.support.renderingcontrol.lastchange.ChannelVolume;
 import org.fourthline.cling.support.renderingcontrol.lastchange.RenderingControlVariable;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
 public class MediaPlayer {
+    private static final PositionInfo NO_POSITION = new PositionInfo();
+    // Shared by every player, only LastChange uses them as they are since it just serializes
+    // them, action responses get a copy
+    private static final Map<TransportState, TransportAction[]> TRANSPORT_ACTIONS =
+            createTransportActions();
+
     final private UnsignedIntegerFourBytes instanceId;
     final private LastChange avTransportLastChange;
     final private LastChange renderingControlLastChange;
-
-    // We'll synchronize read/writes to these fields
-    private volatile TransportInfo currentTransportInfo = new TransportInfo();
-    private PositionInfo currentPositionInfo = new PositionInfo();
-    private MediaInfo currentMediaInfo = new MediaInfo();
+    final private LastChangeModerator lastChangeModerator;
+    final private LockStats writeLockStats;
+    final private ILocalRender localRender;
+    // Hook of the local player, set when a URI is set
+    private volatile IControlPoint controlPoint;
+
+    // Readers never lock, writers are serialized by the write lock and publish a new snapshot,
+    // so SOAP handlers polling the state don't block updates from the playback side.
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile PlayerState state = PlayerState.INITIAL;
+    // A player reports position many times per second, so only the raw value is stored, and
+    // the PositionInfo is built when it's read and cached until the second or media changes.
+    private volatile long positionMillis = -1;
+    private volatile CachedPosition cachedPosition;
+    // Last volume before muting, only accessed with the write lock held
     private int storedVolume;
 
     MediaPlayer(UnsignedIntegerFourBytes instanceId,
                 LastChange avTransportLastChange,
-                LastChange renderingControlLastChange) {
+                LastChange renderingControlLastChange,
+                LastChangeModerator lastChangeModerator,
+                LockStats writeLockStats) {
         super();
         this.instanceId = instanceId;
         this.avTransportLastChange = avTransportLastChange;
         this.renderingControlLastChange = renderingControlLastChange;
+        this.lastChangeModerator = lastChangeModerator;
+        this.writeLockStats = writeLockStats;
+        this.localRender = new ClingLocalRenderer.ILocalRenderImpl(this::getControlPoint);
     }
 
     UnsignedIntegerFourBytes getInstanceId() {
         return instanceId;
     }
 
+    ILocalRender getLocalRender() {
+        return localRender;
+    }
+
+    IControlPoint getControlPoint() {
+        return controlPoint;
+    }
+
+    void setControlPoint(IControlPoint controlPoint) {
+        this.controlPoint = controlPoint;
+    }
+
     private LastChange getAvTransportLastChange() {
         return avTransportLastChange;
     }
@@ -47,34 +85,73 @@ public class MediaPlayer {
         return renderingControlLastChange;
     }
 
-    synchronized TransportInfo getCurrentTransportInfo() {
-        return currentTransportInfo;
+    TransportInfo getCurrentTransportInfo() {
+        return state.getTransportInfo();
     }
 
-    synchronized PositionInfo getCurrentPositionInfo() {
-        return currentPositionInfo;
+    PositionInfo getCurrentPositionInfo() {
+        long millis = positionMillis;
+        if (millis < 0) {
+            return NO_POSITION;
+        }
+        long seconds = millis / 1000;
+        MediaInfo mediaInfo = state.getMediaInfo();
+        CachedPosition cached = cachedPosition;
+        if (cached != null && cached.seconds == seconds && cached.mediaInfo == mediaInfo) {
+            return cached.positionInfo;
+        }
+        String time = ModelUtil.toTimeString(seconds);
+        PositionInfo positionInfo =
+                new PositionInfo(
+                        1,
+                        mediaInfo.getMediaDuration(),
+                        mediaInfo.getCurrentURI(),
+                        time,
+                        time
+                );
+        // Racing readers at most build the same value twice
+        cachedPosition = new CachedPosition(seconds, mediaInfo, positionInfo);
+        return positionInfo;
     }
 
-    synchronized MediaInfo getCurrentMediaInfo() {
-        return currentMediaInfo;
+    MediaInfo getCurrentMediaInfo() {
+        return state.getMediaInfo();
     }
 
-    synchronized void setURI(String uri, String currentURIMetaData) {
-        transportStateChanged(TransportState.STOPPED);
+    void setURI(String uri, String currentURIMetaData) {
+        lockWrite();
+        try {
+            transportStateChanged(TransportState.STOPPED);
+
+            controlPoint = new IControlPointImpl();
+            localRender.setPlayURI(uri);
+            localRender.setURIMetaData(currentURIMetaData);
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-        ClingLocalRenderer.setControlPoint(new IControlPointImpl());
-        ClingLocalRenderer.getLocalRender().setPlayURI(uri);
-        ClingLocalRenderer.getLocalRender().setURIMetaData(currentURIMetaData);
+    void setVolume(int volume) {
+        lockWrite();
+        try {
+            changeVolume(volume);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
-    synchronized void setVolume(int volume) {
-        storedVolume = getVolume();
+    private void changeVolume(int volume) {
+        int previousVolume = getVolume();
+        // Keep the volume to restore on unmute, setting 0 twice must not overwrite it with 0
+        if (previousVolume > 0) {
+            storedVolume = previousVolume;
+        }
 
-        ClingLocalRenderer.getLocalRender().setVolume(volume);
+        localRender.setVolume(volume);
 
         ChannelMute switchedMute =
-                (storedVolume == 0 && volume > 0) || (storedVolume > 0 && volume == 0)
-                        ? new ChannelMute(Channel.Master, storedVolume > 0)
+                (previousVolume == 0 && volume > 0) || (previousVolume > 0 && volume == 0)
+                        ? new ChannelMute(Channel.Master, volume == 0)
                         : null;
 
         getRenderingControlLastChange().setEventedValue(
@@ -86,80 +163,133 @@ public class MediaPlayer {
                         ? new RenderingControlVariable.Mute(switchedMute)
                         : null
         );
+        lastChangeModerator.requestFlush();
     }
 
-    synchronized void setMute(boolean desiredMute) {
-        if (desiredMute && getVolume() > 0) {
-            setVolume(0);
-        } else if (!desiredMute && getVolume() == 0) {
-            setVolume(storedVolume);
+    void setMute(boolean desiredMute) {
+        lockWrite();
+        try {
+            if (desiredMute && getVolume() > 0) {
+                changeVolume(0);
+            } else if (!desiredMute && getVolume() == 0) {
+                changeVolume(storedVolume);
+            }
+        } finally {
+            writeLock.unlock();
         }
     }
 
-    synchronized void setNextAVTransportURI(String nextURI, String nextURIMetaData) {
-        ClingLocalRenderer.getLocalRender().setNextURI(nextURI);
-        ClingLocalRenderer.getLocalRender().setNextURIMetaData(nextURIMetaData);
+    void setNextAVTransportURI(String nextURI, String nextURIMetaData) {
+        lockWrite();
+        try {
+            localRender.setNextURI(nextURI);
+            localRender.setNextURIMetaData(nextURIMetaData);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
-    synchronized TransportAction[] getCurrentTransportActions() {
-        TransportState state = currentTransportInfo.getCurrentTransportState();
-        TransportAction[] actions;
-
-        switch (state) {
-            case STOPPED:
-                actions = new TransportAction[]{
-                        TransportAction.Play
-                };
-                break;
-            case PLAYING:
-                actions = new TransportAction[]{
-                        TransportAction.Stop,
-                        TransportAction.Pause,
-                        TransportAction.Seek
-                };
-                break;
-            case PAUSED_PLAYBACK:
-                actions = new TransportAction[]{
-                        TransportAction.Stop,
-                        TransportAction.Pause,
-                        TransportAction.Seek,
-                        TransportAction.Play
-                };
-                break;
-            default:
-                actions = null;
+    /**
+     * Check that the values pending in LastChange match the state of this player.
+     *
+     * @return null if they match, otherwise a description of the mismatch
+     */
+    String checkConsistency() {
+        lockWrite();
+        try {
+            RenderingControlVariable.Volume volume =
+                    getRenderingControlLastChange()
+                            .getEventedValue(instanceId, RenderingControlVariable.Volume.class);
+            if (volume != null && volume.getValue().getVolume() != getVolume()) {
+                return "Instance " + instanceId + " evented volume " + volume.getValue().getVolume()
+                        + " but has volume " + getVolume();
+            }
+            RenderingControlVariable.Mute mute =
+                    getRenderingControlLastChange()
+                            .getEventedValue(instanceId, RenderingControlVariable.Mute.class);
+            if (mute != null && mute.getValue().getMute() != (getVolume() == 0)) {
+                return "Instance " + instanceId + " evented mute " + mute.getValue().getMute()
+                        + " but has volume " + getVolume();
+            }
+            AVTransportVariable.TransportState transportState =
+                    getAvTransportLastChange()
+                            .getEventedValue(instanceId, AVTransportVariable.TransportState.class);
+            TransportState currentState = state.getTransportInfo().getCurrentTransportState();
+            if (transportState != null && transportState.getValue() != currentState) {
+                return "Instance " + instanceId + " evented transport state "
+                        + transportState.getValue() + " but is " + currentState;
+            }
+            return null;
+        } finally {
+            writeLock.unlock();
         }
-        return actions;
+    }
+
+    /**
+     * Get the actions of the current transport state, the array is a copy which the caller may
+     * modify.
+     */
+    TransportAction[] getCurrentTransportActions() {
+        return getTransportActions(state.getTransportInfo().getCurrentTransportState()).clone();
+    }
+
+    private static TransportAction[] getTransportActions(TransportState state) {
+        return TRANSPORT_ACTIONS.get(state);
+    }
+
+    private static Map<TransportState, TransportAction[]> createTransportActions() {
+        Map<TransportState, TransportAction[]> actions = new EnumMap<>(TransportState.class);
+        actions.put(TransportState.STOPPED, new TransportAction[]{
+                TransportAction.Play
+        });
+        actions.put(TransportState.PLAYING, new TransportAction[]{
+                TransportAction.Stop,
+                TransportAction.Pause,
+                TransportAction.Seek
+        });
+        actions.put(TransportState.PAUSED_PLAYBACK, new TransportAction[]{
+                TransportAction.Stop,
+                TransportAction.Pause,
+                TransportAction.Seek,
+                TransportAction.Play
+        });
+        return Collections.unmodifiableMap(actions);
     }
 
     int getVolume() {
-        return ClingLocalRenderer.getLocalRender().getVolume();
+        return localRender.getVolume();
     }
 
     void play() {
-        ClingLocalRenderer.getLocalRender().play();
+        localRender.play();
     }
 
     void pause() {
-        ClingLocalRenderer.getLocalRender().pause();
+        localRender.pause();
     }
 
     void stop() {
-        ClingLocalRenderer.getLocalRender().stop();
+        localRender.stop();
     }
 
     void seek(String unit, String target) {
-        ClingLocalRenderer.getLocalRender().seek(unit, target);
+        localRender.seek(unit, target);
     }
 
-    protected synchronized void transportStateChanged(TransportState newState) {
-        currentTransportInfo = new TransportInfo(newState);
-
-        getAvTransportLastChange().setEventedValue(
-                getInstanceId(),
-                new AVTransportVariable.TransportState(newState),
-                new AVTransportVariable.CurrentTransportActions(getCurrentTransportActions())
-        );
+    protected void transportStateChanged(TransportState newState) {
+        lockWrite();
+        try {
+            state = state.withTransportInfo(new TransportInfo(newState));
+
+            getAvTransportLastChange().setEventedValue(
+                    getInstanceId(),
+                    new AVTransportVariable.TransportState(newState),
+                    new AVTransportVariable.CurrentTransportActions(getTransportActions(newState))
+            );
+            lastChangeModerator.requestFlush();
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     protected class IControlPointImpl implements IControlPoint {
@@ -185,39 +315,51 @@ public class MediaPlayer {
 
         @Override
         public void positionChanged(int position) {
-            synchronized (MediaPlayer.this) {
-                currentPositionInfo =
-                        new PositionInfo(
-                                1,
-                                currentMediaInfo.getMediaDuration(),
-                                currentMediaInfo.getCurrentURI(),
-                                ModelUtil.toTimeString(position / 1000),
-                                ModelUtil.toTimeString(position / 1000)
-                        );
-            }
+            positionMillis = position;
         }
 
         @Override
         public void durationChanged(int duration) {
-            synchronized (MediaPlayer.this) {
+            lockWrite();
+            try {
                 String newValue = ModelUtil.toTimeString(duration / 1000);
-                currentMediaInfo =
+                MediaInfo mediaInfo = state.getMediaInfo();
+                state = state.withMediaInfo(
                         new MediaInfo(
-                                currentMediaInfo.getCurrentURI(),
-                                currentMediaInfo.getCurrentURIMetaData(),
+                                mediaInfo.getCurrentURI(),
+                                mediaInfo.getCurrentURIMetaData(),
                                 Utils.getDefaultNumberOfTracks(),
                                 newValue,
                                 StorageMedium.NETWORK
-                        );
+                        )
+                );
                 getAvTransportLastChange()
                         .setEventedValue(
                                 getInstanceId(),
                                 new AVTransportVariable.CurrentTrackDuration(newValue),
                                 new AVTransportVariable.CurrentMediaDuration(newValue)
                         );
+                lastChangeModerator.requestFlush();
+            } finally {
+                writeLock.unlock();
             }
         }
 
     }
-}
 
+    private void lockWrite() {
+        writeLockStats.lock(writeLock);
+    }
+
+    private static final class CachedPosition {
+        private final long seconds;
+        private final MediaInfo mediaInfo;
+        private final PositionInfo positionInfo;
+
+        CachedPosition(long seconds, MediaInfo mediaInfo, PositionInfo positionInfo) {
+            this.seconds = seconds;
+            this.mediaInfo = mediaInfo;
+            this.positionInfo = positionInfo;
+        }
+    }
+}
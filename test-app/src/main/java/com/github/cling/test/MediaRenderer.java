@@ -27,11 +27,15 @@ import org.fourthline.cling.support.lastchange.LastChangeAwareServiceManager;
 import org.fourthline.cling.support.renderingcontrol.lastchange.RenderingControlLastChangeParser;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class MediaRenderer {
     private static final String TAG = "MediaRenderer";
+    public static final long DEFAULT_LAST_CHANGE_INTERVAL_MILLIS =
+            LastChangeModerator.DEFAULT_INTERVAL_MILLIS;
 
     // These are shared between all "logical" player instances of a single service
     private final LastChange avTransportLastChange =
@@ -46,20 +50,62 @@ public class MediaRenderer {
 
     private final LocalDevice device;
 
+    private final LastChangeModerator lastChangeModerator;
+    private final LockStats writeLockStats = new LockStats();
+
     private Context context;
 
     public MediaRenderer(Context context) {
+        this(context, DEFAULT_LAST_CHANGE_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Create renderer with a single player instance, which pushes last change automatically, at
+     * most once per given interval.
+     * <p>
+     * An int argument like {@code new MediaRenderer(context, 4)} also binds here, as interval, not
+     * as instance count. Use {@link #MediaRenderer(Context, int, long)} for several instances.
+     */
+    public MediaRenderer(Context context, long lastChangeIntervalMillis) {
+        this(context, 1, lastChangeIntervalMillis);
+    }
+
+    public MediaRenderer(Context context, int instanceCount, long lastChangeIntervalMillis) {
+        this(context, Utils.DEFAULT_RENDERER_ID, instanceCount, lastChangeIntervalMillis);
+    }
+
+    /**
+     * Create renderer with the given number of independent player instances, which pushes last
+     * change automatically, at most once per given interval.
+     * <p>
+     * The UDN is {@link Utils#uniqueSystemIdentifier(String)} of the renderer ID, so renderers
+     * with different IDs can run on the same network. The instance IDs are
+     * {@link Utils#getInstanceIds(int)}, the first one is the default instance.
+     */
+    public MediaRenderer(Context context,
+                         String rendererId,
+                         int instanceCount,
+                         long lastChangeIntervalMillis) {
+        if (instanceCount < 1) {
+            throw new IllegalArgumentException("instanceCount must be positive: " + instanceCount);
+        }
         this.context = context;
+        lastChangeModerator =
+                new LastChangeModerator(this::pushLastChange, lastChangeIntervalMillis);
 
         // This is the backend which manages the actual player instances
         mediaPlayers = new ConcurrentHashMap<>();
-        MediaPlayer player =
-                new MediaPlayer(
-                        Utils.getDefaultInstanceId(),
-                        avTransportLastChange,
-                        renderingControlLastChange
-                );
-        mediaPlayers.put(player.getInstanceId(), player);
+        for (UnsignedIntegerFourBytes instanceId : Utils.getInstanceIds(instanceCount)) {
+            MediaPlayer player =
+                    new MediaPlayer(
+                            instanceId,
+                            avTransportLastChange,
+                            renderingControlLastChange,
+                            lastChangeModerator,
+                            writeLockStats
+                    );
+            mediaPlayers.put(player.getInstanceId(), player);
+        }
 
         // The connection manager doesn't have to do much, HTTP is stateless
         LocalServiceBinder binder = new AnnotationLocalServiceBinder();
@@ -103,13 +149,17 @@ public class MediaRenderer {
         renderingControlService.setManager(renderingControl);
 
         try {
-            UDN udn = Utils.uniqueSystemIdentifier();
+            UDN udn = Utils.uniqueSystemIdentifier(rendererId);
+            String friendlyName = Utils.getRenderName() + " (" + android.os.Build.MODEL + ")";
+            if (!Utils.DEFAULT_RENDERER_ID.equals(rendererId)) {
+                friendlyName += " " + rendererId;
+            }
 
             device = new LocalDevice(
                     new DeviceIdentity(udn),
                     new UDADeviceType("MediaRenderer", 1),
                     new DeviceDetails(
-                            Utils.getRenderName() + " (" + android.os.Build.MODEL + ")",
+                            friendlyName,
                             new ManufacturerDetails(Utils.MANUFACTURER),
                             new ModelDetails(
                                     Utils.DMR_NAME,
@@ -135,18 +185,78 @@ public class MediaRenderer {
     /**
      * Push last change.
      * <p>
-     * This method will push the last change to cling. And it should be invoked manually, when
-     * user want to push last change to server.
+     * This method will push the last change to cling. It is invoked automatically after state
+     * changes, moderated to the interval given to the constructor, and can still be invoked
+     * manually to push immediately.
      */
     public void pushLastChange() {
         avTransport.fireLastChange();
         renderingControl.fireLastChange();
     }
 
+    /**
+     * Get the wait time statistics of the state locks of all player instances.
+     */
+    public LockStats getWriteLockStats() {
+        return writeLockStats;
+    }
+
+    /**
+     * Check that the values pending in last change match the state of every player instance.
+     *
+     * @return descriptions of mismatches, empty if there is none
+     */
+    public List<String> checkConsistency() {
+        List<String> violations = new ArrayList<>();
+        for (MediaPlayer player : mediaPlayers.values()) {
+            String violation = player.checkConsistency();
+            if (violation != null) {
+                violations.add(violation);
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Stop pushing last change automatically.
+     */
+    public void shutdown() {
+        lastChangeModerator.shutdown();
+    }
+
+    /**
+     * Get the local render state of the player instance, null if there is no such instance.
+     */
+    public ILocalRender getLocalRender(UnsignedIntegerFourBytes instanceId) {
+        MediaPlayer player = mediaPlayers.get(instanceId);
+        return player == null ? null : player.getLocalRender();
+    }
+
+    /**
+     * Get the hook which drives the player instance like a local player, it is null until a URI
+     * is set on the instance.
+     */
+    public IControlPoint getControlPoint(UnsignedIntegerFourBytes instanceId) {
+        MediaPlayer player = mediaPlayers.get(instanceId);
+        return player == null ? null : player.getControlPoint();
+    }
+
+    void setControlPoint(UnsignedIntegerFourBytes instanceId, IControlPoint controlPoint) {
+        MediaPlayer player = mediaPlayers.get(instanceId);
+        if (player == null) {
+            throw new IllegalArgumentException("No player instance " + instanceId);
+        }
+        player.setControlPoint(controlPoint);
+    }
+
     public LocalDevice getDevice() {
         return device;
     }
 
+    public int getInstanceCount() {
+        return mediaPlayers.size();
+    }
+
     private Icon createDefaultDeviceIcon() {
         try {
             return new Icon(
@@ -165,7 +275,7 @@ public class MediaRenderer {
 
     private static class DLNAConnectionManagerService extends ConnectionManagerService {
         DLNAConnectionManagerService() {
-            sinkProtocolInfo.addAll(Utils.generateSinkProtocolInfoList());
+            sinkProtocolInfo.addAll(Utils.getSinkProtocolInfoIndex().getProtocolInfos());
         }
     }
 }
@@ -0,0 +1,38 @@
+package com.github.cling.test;
+
+import org.fourthline.cling.support.model.MediaInfo;
+import org.fourthline.cling.support.model.TransportInfo;
+
+/**
+ * Immutable snapshot of the transport and media state of a {@link MediaPlayer}.
+ * <p>
+ * A change creates a new snapshot, so readers holding the previous one always see consistent
+ * values without locking.
+ */
+final class PlayerState {
+    static final PlayerState INITIAL = new PlayerState(new TransportInfo(), new MediaInfo());
+
+    private final TransportInfo transportInfo;
+    private final MediaInfo mediaInfo;
+
+    private PlayerState(TransportInfo transportInfo, MediaInfo mediaInfo) {
+        this.transportInfo = transportInfo;
+        this.mediaInfo = mediaInfo;
+    }
+
+    TransportInfo getTransportInfo() {
+        return transportInfo;
+    }
+
+    MediaInfo getMediaInfo() {
+        return mediaInfo;
+    }
+
+    PlayerState withTransportInfo(TransportInfo transportInfo) {
+        return new PlayerState(transportInfo, mediaInfo);
+    }
+
+    PlayerState withMediaInfo(MediaInfo mediaInfo) {
+        return new PlayerState(transportInfo, mediaInfo);
+    }
+}
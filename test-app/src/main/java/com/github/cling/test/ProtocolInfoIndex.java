@@ -0,0 +1,183 @@
+package com.github.cling.test;
+
+import org.fourthline.cling.support.model.Protocol;
+import org.fourthline.cling.support.model.ProtocolInfo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable index of sink protocol info, to decide if a source can be played without scanning
+ * the whole list.
+ * <p>
+ * Entries are indexed by content format, by the type of wildcard content formats like
+ * "audio/*", and by DLNA profile. A lookup only checks the few entries of the same content
+ * format, so its cost doesn't depend on the size of the list.
+ */
+public final class ProtocolInfoIndex {
+    private static final String WILDCARD = "*";
+    private static final String DLNA_PROFILE = "DLNA.ORG_PN=";
+
+    private final List<ProtocolInfo> protocolInfos;
+    private final Map<String, List<ProtocolInfo>> byContentFormat = new HashMap<>();
+    private final Map<String, List<ProtocolInfo>> byWildcardType = new HashMap<>();
+    private final Map<String, List<ProtocolInfo>> byProfile = new HashMap<>();
+    private final List<ProtocolInfo> anyContentFormat = new ArrayList<>();
+    // Parsed once, so lookups don't split the additional info of every candidate
+    private final Map<ProtocolInfo, String> sinkProfiles = new IdentityHashMap<>();
+
+    public ProtocolInfoIndex(Collection<ProtocolInfo> protocolInfos) {
+        this.protocolInfos = Collections.unmodifiableList(new ArrayList<>(protocolInfos));
+        for (ProtocolInfo info : this.protocolInfos) {
+            String contentFormat = normalizeContentFormat(info.getContentFormat());
+            if (contentFormat.equals(WILDCARD)) {
+                anyContentFormat.add(info);
+            } else if (contentFormat.endsWith("/" + WILDCARD)) {
+                put(byWildcardType, getType(contentFormat), info);
+            } else {
+                put(byContentFormat, contentFormat, info);
+            }
+            String profile = getProfile(info);
+            if (profile != null) {
+                sinkProfiles.put(info, profile);
+                put(byProfile, profile, info);
+            }
+        }
+    }
+
+    /**
+     * Get all entries, in the order they were given.
+     */
+    public List<ProtocolInfo> getProtocolInfos() {
+        return protocolInfos;
+    }
+
+    /**
+     * Get the entries with exactly the given content format, e.g. "video/mp4".
+     */
+    public List<ProtocolInfo> getByContentFormat(String contentFormat) {
+        return Collections.unmodifiableList(
+                get(byContentFormat, normalizeContentFormat(contentFormat))
+        );
+    }
+
+    /**
+     * Get the entries with the given DLNA profile, e.g. "AVC_MP4_BL_CIF15_AAC_520".
+     */
+    public List<ProtocolInfo> getByProfile(String profile) {
+        return Collections.unmodifiableList(get(byProfile, profile));
+    }
+
+    /**
+     * Check if any entry accepts the content format, with any protocol.
+     */
+    public boolean supportsContentFormat(String contentFormat) {
+        String normalized = normalizeContentFormat(contentFormat);
+        return !anyContentFormat.isEmpty()
+                || byContentFormat.containsKey(normalized)
+                || byWildcardType.containsKey(getType(normalized));
+    }
+
+    /**
+     * Check if a source can be played by a sink of this index.
+     */
+    public boolean isCompatible(ProtocolInfo source) {
+        return findCompatible(source) != null;
+    }
+
+    /**
+     * Find the sink entry which accepts the source. Exact content formats are preferred over
+     * wildcards.
+     *
+     * @return the first compatible entry, or null if there is none
+     */
+    public ProtocolInfo findCompatible(ProtocolInfo source) {
+        String contentFormat = normalizeContentFormat(source.getContentFormat());
+        String profile = getProfile(source);
+        ProtocolInfo match = findCompatible(get(byContentFormat, contentFormat), source, profile);
+        if (match == null) {
+            match = findCompatible(
+                    get(byWildcardType, getType(contentFormat)),
+                    source,
+                    profile
+            );
+        }
+        if (match == null) {
+            match = findCompatible(anyContentFormat, source, profile);
+        }
+        return match;
+    }
+
+    private ProtocolInfo findCompatible(List<ProtocolInfo> sinks,
+                                        ProtocolInfo source,
+                                        String sourceProfile) {
+        for (ProtocolInfo sink : sinks) {
+            if (isProtocolCompatible(sink, source) && isProfileCompatible(sink, sourceProfile)) {
+                return sink;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isProtocolCompatible(ProtocolInfo sink, ProtocolInfo source) {
+        return sink.getProtocol() == Protocol.ALL
+                || source.getProtocol() == Protocol.ALL
+                || sink.getProtocol() == source.getProtocol();
+    }
+
+    private boolean isProfileCompatible(ProtocolInfo sink, String sourceProfile) {
+        // A sink without profile accepts any profile of its content format
+        String sinkProfile = sinkProfiles.get(sink);
+        return sinkProfile == null || sourceProfile == null || sinkProfile.equals(sourceProfile);
+    }
+
+    private static String getProfile(ProtocolInfo info) {
+        String additionalInfo = info.getAdditionalInfo();
+        if (additionalInfo == null) {
+            return null;
+        }
+        for (String parameter : additionalInfo.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.startsWith(DLNA_PROFILE)) {
+                return trimmed.substring(DLNA_PROFILE.length());
+            }
+        }
+        return null;
+    }
+
+    private static String normalizeContentFormat(String contentFormat) {
+        if (contentFormat == null) {
+            return WILDCARD;
+        }
+        int parameters = contentFormat.indexOf(';');
+        if (parameters >= 0) {
+            contentFormat = contentFormat.substring(0, parameters);
+        }
+        return contentFormat.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String getType(String contentFormat) {
+        int slash = contentFormat.indexOf('/');
+        return slash >= 0 ? contentFormat.substring(0, slash) : contentFormat;
+    }
+
+    private static void put(Map<String, List<ProtocolInfo>> map, String key, ProtocolInfo info) {
+        List<ProtocolInfo> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<>(1);
+            map.put(key, list);
+        }
+        list.add(info);
+    }
+
+    private static List<ProtocolInfo> get(Map<String, List<ProtocolInfo>> map, String key) {
+        List<ProtocolInfo> list = map.get(key);
+        return list != null ? list : Collections.<ProtocolInfo>emptyList();
+    }
+}
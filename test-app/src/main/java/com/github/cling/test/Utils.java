@@ -8,6 +8,7 @@ import org.fourthline.cling.support.model.Channel;
 import org.fourthline.cling.support.model.ProtocolInfo;
 import org.seamless.util.MimeType;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -18,14 +19,26 @@ public class Utils {
 
     public static final String DMR_DESC = "MSI MediaRenderer";
     public static final String DMR_MODEL_URL = "http://4thline.org/projects/cling/mediarenderer/";
+    public static final String DEFAULT_RENDERER_ID = "default";
 
     public static UDN uniqueSystemIdentifier() {
+        return uniqueSystemIdentifier(DEFAULT_RENDERER_ID);
+    }
+
+    /**
+     * Get UDN of the renderer with the given ID. It's derived from the ID and the device, so it's
+     * the same after a restart, and renderers with different IDs don't collide.
+     */
+    public static UDN uniqueSystemIdentifier(String rendererId) {
         String salt = "msidmr";
-        StringBuilder systemSalt = new StringBuilder();
+        StringBuilder systemSalt = new StringBuilder(salt);
         systemSalt.append(getUUID());
         systemSalt.append(Build.MODEL);
         systemSalt.append(Build.MANUFACTURER);
-        return new UDN(new UUID(Long.MAX_VALUE, salt.hashCode()));
+        systemSalt.append(rendererId);
+        return new UDN(
+                UUID.nameUUIDFromBytes(systemSalt.toString().getBytes(StandardCharsets.UTF_8))
+        );
     }
 
     public static String getRenderName() {
@@ -45,10 +58,30 @@ public class Utils {
         return new UnsignedIntegerFourBytes(1);
     }
 
+    /**
+     * Get IDs of the given number of player instances, starting with the default instance.
+     */
+    public static UnsignedIntegerFourBytes[] getInstanceIds(int count) {
+        UnsignedIntegerFourBytes[] ids = new UnsignedIntegerFourBytes[count];
+        long defaultId = getDefaultInstanceId().getValue();
+        for (int i = 0; i < count; i++) {
+            ids[i] = new UnsignedIntegerFourBytes(defaultId + i);
+        }
+        return ids;
+    }
+
     public static UnsignedIntegerFourBytes getDefaultNumberOfTracks() {
         return new UnsignedIntegerFourBytes(1);
     }
 
+    /**
+     * Get the index of {@link #generateSinkProtocolInfoList()}, which is built once and shared
+     * by every renderer.
+     */
+    public static ProtocolInfoIndex getSinkProtocolInfoIndex() {
+        return SinkProtocolInfoHolder.INDEX;
+    }
+
     public static List<ProtocolInfo> generateSinkProtocolInfoList() {
         List<ProtocolInfo> infoList = new ArrayList<>();
         infoList.add(new ProtocolInfo(MimeType.valueOf("image/jpeg")));
@@ -84,4 +117,9 @@ public class Utils {
         infoList.add(new ProtocolInfo(MimeType.valueOf("audio/x-ms-wma")));
         return infoList;
     }
+
+    private static class SinkProtocolInfoHolder {
+        static final ProtocolInfoIndex INDEX =
+                new ProtocolInfoIndex(generateSinkProtocolInfoList());
+    }
 }